@@ -0,0 +1,87 @@
+package org.example.carrentapp.benchmark;
+
+import org.example.carrentapp.CarRentAppApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aplikacja uruchomiona na potrzeby benchmarków.
+ * Domyślnie na PostgreSQL z Testcontainers; z -Dbenchmark.datasource.url=... (oraz
+ * .username / .password) na wskazanej bazie – jej tabele są czyszczone przed pomiarem.
+ */
+final class BenchmarkEnvironment implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> container;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(PostgreSQLContainer<?> container, ConfigurableApplicationContext context) {
+        this.container = container;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start() {
+        return start(Map.of());
+    }
+
+    // overrides – dodatkowe właściwości Springa (np. tryb wątków) nadpisujące domyślne
+    static BenchmarkEnvironment start(Map<String, Object> overrides,
+                                      ApplicationContextInitializer<?>... initializers) {
+        PostgreSQLContainer<?> container = null;
+        String url = System.getProperty("benchmark.datasource.url");
+        String username = System.getProperty("benchmark.datasource.username", "myuser");
+        String password = System.getProperty("benchmark.datasource.password", "mypassword");
+        if (url == null) {
+            container = new PostgreSQLContainer<>("postgres:15")
+                    .withDatabaseName("bench-db")
+                    .withUsername("bench")
+                    .withPassword("bench");
+            container.start();
+            url = container.getJdbcUrl();
+            username = container.getUsername();
+            password = container.getPassword();
+        }
+
+        Map<String, Object> props = new HashMap<>();
+        props.put("spring.datasource.url", url);
+        props.put("spring.datasource.username", username);
+        props.put("spring.datasource.password", password);
+        props.put("spring.jpa.show-sql", "false");
+        props.put("server.port", "0");
+        props.put("logging.level.root", "WARN");
+        props.putAll(overrides);
+
+        // Jako argumenty wiersza poleceń, bo domyślne właściwości przegrywają z application.properties
+        SpringApplication app = new SpringApplication(CarRentAppApplication.class);
+        app.addInitializers(initializers);
+        ConfigurableApplicationContext context = app.run(props.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new));
+
+        BenchmarkEnvironment env = new BenchmarkEnvironment(container, context);
+        env.bean(JdbcTemplate.class)
+                .execute("TRUNCATE reservations, user_roles, users, roles, cars RESTART IDENTITY CASCADE");
+        return env;
+    }
+
+    int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.carrentapp.benchmark;
+
+import org.example.carrentapp.dto.CursorPageDto;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.service.CarService;
+import org.example.carrentapp.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    int fleetSize;
+
+    private BenchmarkEnvironment env;
+    private CarService carService;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start();
+        CarRepository carRepo = env.bean(CarRepository.class);
+        List<Car> fleet = new ArrayList<>(fleetSize);
+        for (int i = 0; i < fleetSize; i++) {
+            Car car = new Car();
+            car.setMake("Make" + (i % 50));
+            car.setModel("Model" + (i % 400));
+            car.setYear(2010 + i % 15);
+            car.setAvailable(i % 3 != 0);
+            fleet.add(car);
+        }
+        carRepo.saveAll(fleet);
+        env.bean(ReservationService.class).rebuildAvailabilityIndex();
+
+        carService = env.bean(CarService.class);
+        carService.rebuildAutocomplete();
+        start = LocalDate.now().plusDays(7);
+        end = start.plusDays(3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public List<Car> findAvailableCars() {
+        return carService.findAvailableCars();
+    }
+
+    // Pierwsza strona wolnych aut w przedziale dat
+    @Benchmark
+    public CursorPageDto<Car> findAvailableCarsForPeriod() {
+        return carService.findAvailableCars(start, end, null, null, CarService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Car> searchCars() {
+        return carService.searchCars("make1 model2", CarService.DEFAULT_PAGE_SIZE);
+    }
+
+    // Jedno naciśnięcie klawisza w polu wyszukiwania
+    @Benchmark
+    public List<String> autocomplete() {
+        return carService.autocomplete("model1", 10);
+    }
+}
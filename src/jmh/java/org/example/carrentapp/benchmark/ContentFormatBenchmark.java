@@ -0,0 +1,103 @@
+package org.example.carrentapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.carrentapp.config.JacksonConfig;
+import org.example.carrentapp.dto.ReservationViewDto;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.ReservationStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON vs CBOR vs Smile dla list z GET /api/cars i GET /api/reservations: kodowanie, dekodowanie
+// (po stronie klienta) i rozmiar odpowiedzi – wypisywany raz na próbę, bo JMH mierzy tylko czas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentFormatBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    String format;
+
+    private ObjectWriter carsWriter;
+    private ObjectReader carsReader;
+    private ObjectWriter reservationViewsWriter;
+    private ObjectReader reservationViewsReader;
+    private List<Car> cars;
+    private List<ReservationViewDto> reservationViews;
+    private byte[] carsPayload;
+    private byte[] reservationViewsPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "SMILE" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        ObjectMapper mapper = JacksonConfig.objectMapper(factory);
+        CollectionType carList = mapper.getTypeFactory().constructCollectionType(List.class, Car.class);
+        CollectionType viewList = mapper.getTypeFactory().constructCollectionType(List.class, ReservationViewDto.class);
+        carsWriter = mapper.writerFor(carList);
+        carsReader = mapper.readerFor(carList);
+        reservationViewsWriter = mapper.writerFor(viewList);
+        reservationViewsReader = mapper.readerFor(viewList);
+
+        cars = new ArrayList<>(size);
+        reservationViews = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Car car = new Car();
+            car.setId((long) i);
+            car.setMake("Make" + (i % 50));
+            car.setModel("Model" + (i % 400));
+            car.setYear(2010 + i % 15);
+            car.setAvailable(i % 2 == 0);
+            cars.add(car);
+
+            LocalDate start = LocalDate.of(2025, 1, 1).plusDays(i % 365);
+            reservationViews.add(new ReservationViewDto((long) i, start, start.plusDays(3), ReservationStatus.ACTIVE,
+                    car.getId(), car.getMake(), car.getModel(), 1L, "jan"));
+        }
+
+        carsPayload = carsWriter.writeValueAsBytes(cars);
+        reservationViewsPayload = reservationViewsWriter.writeValueAsBytes(reservationViews);
+        System.out.printf("%n[%s, size=%d] cars: %d B, reservations: %d B%n",
+                format, size, carsPayload.length, reservationViewsPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCars() throws IOException {
+        return carsWriter.writeValueAsBytes(cars);
+    }
+
+    @Benchmark
+    public List<Car> decodeCars() throws IOException {
+        return carsReader.readValue(carsPayload);
+    }
+
+    @Benchmark
+    public byte[] encodeReservationViews() throws IOException {
+        return reservationViewsWriter.writeValueAsBytes(reservationViews);
+    }
+
+    @Benchmark
+    public List<ReservationViewDto> decodeReservationViews() throws IOException {
+        return reservationViewsReader.readValue(reservationViewsPayload);
+    }
+}
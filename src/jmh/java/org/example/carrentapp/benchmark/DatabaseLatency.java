@@ -0,0 +1,74 @@
+package org.example.carrentapp.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Dodaje stałe opóźnienie do każdego wykonania zapytania i commita – symuluje bazę
+ * dostępną przez sieć (lokalny PostgreSQL odpowiada w ułamku milisekundy).
+ * Wątek czeka przy tym jak na prawdziwe I/O, trzymając połączenie z puli.
+ */
+final class DatabaseLatency implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private final long millis;
+
+    DatabaseLatency(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        context.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? new SlowDataSource(dataSource) : bean;
+            }
+        });
+    }
+
+    private final class SlowDataSource extends DelegatingDataSource {
+
+        SlowDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return slow(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return slow(super.getConnection(username, password), Connection.class);
+        }
+    }
+
+    private <T> T slow(Object target, Class<T> type) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute") || name.equals("commit")) {
+                Thread.sleep(millis);
+            }
+            try {
+                Object result = method.invoke(target, args);
+                // createStatement / prepareStatement / prepareCall – typ zwracany wskazuje interfejs
+                if (type == Connection.class && result instanceof Statement) {
+                    return slow(result, method.getReturnType());
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.carrentapp.benchmark;
+
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.repository.CarRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test obciążeniowy HTTP: paczka jednoczesnych żądań do API aut (zapytania do bazy),
+ * przy wątkach platformowych Tomcata i przy wątkach wirtualnych.
+ * Wynik to obsłużone żądania na sekundę.
+ * <p>
+ * Każde zapytanie i commit kosztuje dodatkowo dbLatencyMillis (jak baza za siecią), a pula
+ * połączeń jest większa niż pula Tomcata – wtedy w trybie platformowym limitem są wątki.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@OperationsPerInvocation(HttpThroughputBenchmark.CONCURRENT_REQUESTS)
+public class HttpThroughputBenchmark {
+
+    static final int CONCURRENT_REQUESTS = 400;
+    private static final int FLEET_SIZE = 2000;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    // Pula Tomcata w trybie platformowym; w trybie wirtualnym ignorowana
+    @Param("20")
+    int tomcatThreads;
+
+    @Param("20")
+    long dbLatencyMillis;
+
+    private BenchmarkEnvironment env;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private String base;
+    private String authorization;
+    private List<Long> carIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start(Map.of(
+                "spring.threads.virtual.enabled", virtualThreads,
+                "server.tomcat.threads.max", tomcatThreads,
+                "spring.datasource.hikari.maximum-pool-size", 100,
+                // mierzymy obsługę żądań, nie BCrypt przy każdym Basic Auth
+                "carrentapp.security.bcrypt-strength", 4,
+                "carrentapp.security.password.target-latency", "0"),
+                new DatabaseLatency(dbLatencyMillis));
+
+        List<Car> fleet = new ArrayList<>(FLEET_SIZE);
+        for (int i = 0; i < FLEET_SIZE; i++) {
+            Car car = new Car();
+            car.setMake("Make" + (i % 50));
+            car.setModel("Model" + (i % 400));
+            car.setYear(2010 + i % 15);
+            car.setAvailable(i % 3 != 0);
+            fleet.add(car);
+        }
+        carIds = env.bean(CarRepository.class).saveAll(fleet).stream().map(Car::getId).toList();
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        base = "http://localhost:" + env.port() + "/api/cars";
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString("user:password".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.close();
+        env.close();
+    }
+
+    // Wysyła CONCURRENT_REQUESTS żądań naraz i czeka na wszystkie odpowiedzi
+    @Benchmark
+    public int burst() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            Long carId = carIds.get(random.nextInt(carIds.size()));
+            String path = i % 2 == 0
+                    ? "/page?afterId=" + carId + "&make=Make" + random.nextInt(50) + "&size=20"
+                    : "/page?afterId=" + carId + "&available=true&size=50";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", authorization)
+                    .GET()
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != CONCURRENT_REQUESTS) {
+            throw new IllegalStateException("Only " + ok + " of " + CONCURRENT_REQUESTS + " requests succeeded");
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.carrentapp.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.carrentapp.config.JacksonConfig;
+import org.example.carrentapp.dto.ReservationViewDto;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializacja list zwracanych przez endpointy list (bez bazy danych)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    int size;
+
+    // BASELINE: poprzednia konfiguracja (sam JavaTimeModule, refleksja, writer szukany przy każdym wywołaniu);
+    // TUNED: JacksonConfig (Blackbird, Hibernate6Module) i writery zbudowane raz dla typu listy
+    @Param({"BASELINE", "TUNED"})
+    String mapperConfig;
+
+    private ObjectWriter carsWriter;
+    private ObjectWriter reservationsWriter;
+    private ObjectWriter reservationViewsWriter;
+    private List<Car> cars;
+    private List<Reservation> reservations;
+    private List<ReservationViewDto> reservationViews;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (mapperConfig.equals("TUNED")) {
+            // ta sama konfiguracja co w aplikacji (Spring Boot + JacksonConfig)
+            ObjectMapper mapper = JacksonConfig.objectMapper();
+            TypeFactory types = mapper.getTypeFactory();
+            carsWriter = mapper.writerFor(types.constructCollectionType(List.class, Car.class));
+            reservationsWriter = mapper.writerFor(types.constructCollectionType(List.class, Reservation.class));
+            reservationViewsWriter = mapper.writerFor(types.constructCollectionType(List.class, ReservationViewDto.class));
+        } else {
+            ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+                    .modulesToInstall(new JavaTimeModule())
+                    .build();
+            carsWriter = mapper.writer();
+            reservationsWriter = mapper.writer();
+            reservationViewsWriter = mapper.writer();
+        }
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("jan");
+        user.setEmail("jan@example.com");
+
+        cars = new ArrayList<>(size);
+        reservations = new ArrayList<>(size);
+        reservationViews = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Car car = new Car();
+            car.setId((long) i);
+            car.setMake("Make" + (i % 50));
+            car.setModel("Model" + (i % 400));
+            car.setYear(2010 + i % 15);
+            car.setAvailable(i % 2 == 0);
+            cars.add(car);
+
+            Reservation r = new Reservation();
+            r.setId((long) i);
+            r.setCar(car);
+            r.setUser(user);
+            r.setStartDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            r.setEndDate(r.getStartDate().plusDays(3));
+            reservations.add(r);
+            reservationViews.add(new ReservationViewDto(r.getId(), r.getStartDate(), r.getEndDate(), r.getStatus(),
+                    car.getId(), car.getMake(), car.getModel(), user.getId(), user.getUsername()));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeCars() throws JsonProcessingException {
+        return carsWriter.writeValueAsBytes(cars);
+    }
+
+    @Benchmark
+    public byte[] serializeReservations() throws JsonProcessingException {
+        return reservationsWriter.writeValueAsBytes(reservations);
+    }
+
+    // To, co zwraca GET /api/reservations (projekcja zamiast encji)
+    @Benchmark
+    public byte[] serializeReservationViews() throws JsonProcessingException {
+        return reservationViewsWriter.writeValueAsBytes(reservationViews);
+    }
+}
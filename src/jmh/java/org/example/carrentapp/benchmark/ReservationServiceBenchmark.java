@@ -0,0 +1,66 @@
+package org.example.carrentapp.benchmark;
+
+import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.service.ReservationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationServiceBenchmark {
+
+    private BenchmarkEnvironment env;
+    private ReservationService reservationService;
+    private CarRepository carRepo;
+    private Long userId;
+    private ReservationDto dto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start();
+        reservationService = env.bean(ReservationService.class);
+        carRepo = env.bean(CarRepository.class);
+
+        User user = new User();
+        user.setUsername("bench");
+        user.setPassword("bench");
+        user.setEmail("bench@example.com");
+        userId = env.bean(UserRepository.class).save(user).getId();
+    }
+
+    // Każde wywołanie rezerwuje świeże auto, żeby mierzyć ścieżkę sukcesu, a nie konflikt
+    @Setup(Level.Invocation)
+    public void prepareCar() {
+        Car car = new Car();
+        car.setMake("Bench");
+        car.setModel("Car");
+        car.setYear(2024);
+        car.setAvailable(true);
+
+        dto = new ReservationDto();
+        dto.setCarId(carRepo.save(car).getId());
+        dto.setUserId(userId);
+        dto.setStartDate(LocalDate.now().plusDays(1));
+        dto.setEndDate(LocalDate.now().plusDays(3));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public Long createReservation() {
+        return reservationService.createReservation(dto);
+    }
+}
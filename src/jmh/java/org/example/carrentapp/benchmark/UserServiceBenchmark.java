@@ -0,0 +1,58 @@
+package org.example.carrentapp.benchmark;
+
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Algorytm nowych hashy; koszt każdego dobierany przy starcie do target-latency
+    @Param({"bcrypt", "argon2", "pbkdf2"})
+    String algorithm;
+
+    private BenchmarkEnvironment env;
+    private UserService userService;
+    private PasswordEncoder encoder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = BenchmarkEnvironment.start(Map.of("carrentapp.security.password.algorithm", algorithm));
+        userService = env.bean(UserService.class);
+        encoder = env.bean(PasswordEncoder.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    // Cała rejestracja: sprawdzenie unikalności, hash hasła i zapis
+    @Benchmark
+    public User createUser() {
+        long n = sequence.incrementAndGet();
+        User user = new User();
+        user.setUsername("user" + n);
+        user.setEmail("user" + n + "@example.com");
+        user.setPassword("password" + n);
+        return userService.createUser(user);
+    }
+
+    // Sam koszt hashowania hasła, dla porównania z createUser
+    @Benchmark
+    public String encodePassword() {
+        return encoder.encode("password");
+    }
+}
@@ -9,10 +9,14 @@ import org.example.carrentapp.entity.*;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("org.example.carrentapp.entity")
 @EnableJpaRepositories("org.example.carrentapp.repository")
+@EnableRetry
+@EnableScheduling
 
 public class CarRentAppApplication {
 
@@ -0,0 +1,18 @@
+package org.example.carrentapp.available;
+
+import org.example.carrentapp.entity.Car;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Reguła dostępności jednej kategorii aut, zapisana jako warunek SQL.
+ * Musi dawać ten sam wynik co {@link IfAvailable#getAvailable()} tej kategorii –
+ * {@link AvailabilityRules} sprawdza to na zwróconych wierszach.
+ */
+public interface AvailabilityRule {
+
+    // Klasa kategorii (Car albo podklasa); reguła podklasy ma pierwszeństwo przed regułą nadklasy
+    Class<? extends Car> category();
+
+    // Warunek dla aut tej kategorii – bez warunku na typ, ten dokłada AvailabilityRules
+    Specification<Car> predicate();
+}
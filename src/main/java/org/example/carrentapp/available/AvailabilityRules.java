@@ -0,0 +1,118 @@
+package org.example.carrentapp.available;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.EntityType;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.example.carrentapp.repository.CarSpecifications.inCategory;
+
+/**
+ * Składa reguły kategorii ({@link AvailabilityRule}) w jeden warunek SQL "auto jest dostępne".
+ * <p>
+ * Każda zmapowana klasa aut dostaje regułę najbliższej nadklasy (albo własną). Gdy jedna reguła
+ * obejmuje wszystkie klasy, warunek nie zawiera typu; inaczej to OR po grupach
+ * {@code type(c) in (...) and <reguła>}. Reguły kategorii, których JPA nie mapuje, są pomijane.
+ * <p>
+ * Ścieżka w Javie ({@link IfAvailable#getAvailable()}) zostaje tylko jako kontrola wyniku:
+ * wiersz, który przeszedł przez SQL, a nie przechodzi przez getAvailable(), jest odrzucany
+ * i liczony w metryce carrentapp.availability.rule.mismatches.
+ */
+@Component
+public class AvailabilityRules {
+
+    private final Specification<Car> available;
+    private final Map<CarCategory, Specification<Car>> availableByCategory = new EnumMap<>(CarCategory.class);
+    private final Counter mismatches;
+
+    @Autowired
+    public AvailabilityRules(List<AvailabilityRule> rules, EntityManagerFactory emf, MeterRegistry meterRegistry) {
+        this(rules, emf.getMetamodel().getEntities().stream()
+                .map(EntityType::getJavaType)
+                .filter(Car.class::isAssignableFrom)
+                .collect(Collectors.toSet()), meterRegistry);
+    }
+
+    public AvailabilityRules(List<AvailabilityRule> rules, Set<Class<?>> mappedCategories, MeterRegistry meterRegistry) {
+        this.available = compose(rules, mappedCategories);
+        for (CarCategory category : CarCategory.values()) {
+            AvailabilityRule rule = closestRule(rules, category.type());
+            if (mappedCategories.contains(category.type()) && rule != null) {
+                availableByCategory.put(category, Specification.where(inCategory(category)).and(rule.predicate()));
+            }
+        }
+        this.mismatches = Counter.builder("carrentapp.availability.rule.mismatches")
+                .description("Cars returned by the SQL availability rule but rejected by IfAvailable")
+                .register(meterRegistry);
+    }
+
+    public Specification<Car> available() {
+        return available;
+    }
+
+    // Dostępne auta jednej kategorii: warunek na category i tylko reguła tej kategorii
+    public Specification<Car> available(CarCategory category) {
+        Specification<Car> spec = availableByCategory.get(category);
+        if (spec == null) {
+            throw new IllegalArgumentException("Car category is not mapped: " + category);
+        }
+        return spec;
+    }
+
+    // Kontrola wyniku z bazy tą samą regułą w Javie
+    public <T extends Car> List<T> verify(Collection<T> cars) {
+        List<T> confirmed = new ArrayList<>(cars.size());
+        for (T car : cars) {
+            if (car.getAvailable()) {
+                confirmed.add(car);
+            } else {
+                mismatches.increment();
+            }
+        }
+        return confirmed;
+    }
+
+    private static Specification<Car> compose(List<AvailabilityRule> rules, Set<Class<?>> mappedCategories) {
+        Map<AvailabilityRule, List<Class<?>>> governed = new LinkedHashMap<>();
+        for (Class<?> category : mappedCategories) {
+            AvailabilityRule rule = closestRule(rules, category);
+            if (rule == null) {
+                throw new IllegalStateException("No availability rule for car category " + category.getSimpleName());
+            }
+            governed.computeIfAbsent(rule, r -> new ArrayList<>()).add(category);
+        }
+        if (governed.size() == 1) {
+            return governed.keySet().iterator().next().predicate();
+        }
+        List<Specification<Car>> branches = new ArrayList<>();
+        governed.forEach((rule, categories) -> branches.add(
+                Specification.<Car>where((root, query, cb) -> root.type().in(categories)).and(rule.predicate())));
+        return Specification.anyOf(branches);
+    }
+
+    // Reguła zadeklarowana dla klasy najbliższej w hierarchii (sama klasa albo jej nadklasa)
+    private static AvailabilityRule closestRule(List<AvailabilityRule> rules, Class<?> category) {
+        for (Class<?> c = category; c != null; c = c.getSuperclass()) {
+            for (AvailabilityRule rule : rules) {
+                if (rule.category() == c) {
+                    return rule;
+                }
+            }
+        }
+        return null;
+    }
+}
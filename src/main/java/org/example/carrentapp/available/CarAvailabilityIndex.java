@@ -0,0 +1,217 @@
+package org.example.carrentapp.available;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks zajętości aut w pamięci: dla każdego auta posortowana (po dacie startu) lista
+ * rozłącznych przedziałów [startDate, endDate] z rezerwacji.
+ * <p>
+ * Ponieważ przedziały jednego auta się nie nakładają (pilnuje tego ReservationService),
+ * kolizję z [start, end] może mieć tylko przedział o największym starcie &lt;= end,
+ * więc pytanie "czy auto jest wolne" kosztuje O(log n) zamiast skanu po historii.
+ * Pytania o całą flotę obsługuje dodatkowo {@link OccupancyBitmap} (kroczące okno dni).
+ */
+@Component
+public class CarAvailabilityIndex {
+
+    public record Booking(long reservationId, long carId, LocalDate start, LocalDate end) {
+    }
+
+    public static final int DEFAULT_HORIZON_DAYS = 365;
+
+    private final Map<Long, NavigableMap<LocalDate, Booking>> calendars = new ConcurrentHashMap<>();
+    private final Map<Long, Booking> byReservation = new ConcurrentHashMap<>();
+    private final Set<Long> fleet = ConcurrentHashMap.newKeySet();
+
+    private final Clock clock;
+    private final OccupancyBitmap bitmap;
+    private final ReentrantReadWriteLock bitmapLock = new ReentrantReadWriteLock();
+
+    public CarAvailabilityIndex() {
+        this(Clock.systemDefaultZone(), DEFAULT_HORIZON_DAYS);
+    }
+
+    @Autowired
+    public CarAvailabilityIndex(@Value("${carrentapp.availability.horizon-days:365}") int horizonDays) {
+        this(Clock.systemDefaultZone(), horizonDays);
+    }
+
+    public CarAvailabilityIndex(Clock clock, int horizonDays) {
+        this.clock = clock;
+        this.bitmap = new OccupancyBitmap(LocalDate.now(clock), horizonDays);
+    }
+
+    // Czy auto jest wolne w całym przedziale [start, end] (obie daty włącznie)
+    public boolean isFree(Long carId, LocalDate start, LocalDate end) {
+        return isFree(carId, start, end, null);
+    }
+
+    // Jak wyżej, ale pomija wskazaną rezerwację (przydatne przy zmianie dat)
+    public boolean isFree(Long carId, LocalDate start, LocalDate end, Long ignoredReservationId) {
+        NavigableMap<LocalDate, Booking> calendar = calendars.get(carId);
+        if (calendar == null) {
+            return true;
+        }
+        Map.Entry<LocalDate, Booking> candidate = calendar.floorEntry(end);
+        while (candidate != null) {
+            Booking b = candidate.getValue();
+            if (ignoredReservationId == null || b.reservationId() != ignoredReservationId) {
+                return b.end().isBefore(start);
+            }
+            candidate = calendar.lowerEntry(candidate.getKey());
+        }
+        return true;
+    }
+
+    // Które z podanych aut są wolne w przedziale [start, end]
+    public List<Long> freeCars(Collection<Long> carIds, LocalDate start, LocalDate end) {
+        return carIds.stream()
+                .filter(id -> isFree(id, start, end))
+                .toList();
+    }
+
+    // Które auta z całej floty są wolne w przedziale [start, end]
+    public List<Long> freeCars(LocalDate start, LocalDate end) {
+        rollWindow();
+        bitmapLock.readLock().lock();
+        try {
+            if (bitmap.covers(start, end)) {
+                return bitmap.freeCars(start, end);
+            }
+        } finally {
+            bitmapLock.readLock().unlock();
+        }
+        // Poza oknem kalendarza – sprawdzamy auta pojedynczo
+        return freeCars(fleet, start, end);
+    }
+
+    public void registerCar(Long carId) {
+        fleet.add(carId);
+        bitmapLock.writeLock().lock();
+        try {
+            bitmap.addCar(carId);
+        } finally {
+            bitmapLock.writeLock().unlock();
+        }
+    }
+
+    public void unregisterCar(Long carId) {
+        bitmapLock.writeLock().lock();
+        try {
+            fleet.remove(carId);
+            NavigableMap<LocalDate, Booking> calendar = calendars.remove(carId);
+            if (calendar != null) {
+                calendar.values().forEach(b -> byReservation.remove(b.reservationId()));
+            }
+            bitmap.removeCar(carId);
+        } finally {
+            bitmapLock.writeLock().unlock();
+        }
+    }
+
+    // Rejestruje (lub przesuwa) rezerwację; w transakcji dopiero po commicie
+    public void book(Long reservationId, Long carId, LocalDate start, LocalDate end) {
+        afterCommit(() -> put(new Booking(reservationId, carId, start, end)));
+    }
+
+    // Usuwa rezerwację z indeksu; w transakcji dopiero po commicie
+    public void release(Long reservationId) {
+        afterCommit(() -> remove(reservationId));
+    }
+
+    // Wypełnia indeks od nowa (np. przy starcie aplikacji)
+    public void rebuild(Collection<Long> carIds, Collection<Booking> bookings) {
+        bitmapLock.writeLock().lock();
+        try {
+            calendars.clear();
+            byReservation.clear();
+            fleet.forEach(bitmap::removeCar);
+            fleet.clear();
+            bitmap.reset(LocalDate.now(clock));
+            carIds.forEach(this::registerCar);
+            bookings.forEach(this::put);
+        } finally {
+            bitmapLock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return byReservation.size();
+    }
+
+    private void put(Booking booking) {
+        bitmapLock.writeLock().lock();
+        try {
+            remove(booking.reservationId());
+            byReservation.put(booking.reservationId(), booking);
+            fleet.add(booking.carId());
+            bitmap.addCar(booking.carId());
+            calendars.computeIfAbsent(booking.carId(), id -> new ConcurrentSkipListMap<>())
+                    .put(booking.start(), booking);
+            bitmap.occupy(booking.carId(), booking.start(), booking.end());
+        } finally {
+            bitmapLock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long reservationId) {
+        bitmapLock.writeLock().lock();
+        try {
+            Booking old = byReservation.remove(reservationId);
+            if (old != null) {
+                NavigableMap<LocalDate, Booking> calendar = calendars.get(old.carId());
+                if (calendar != null) {
+                    calendar.remove(old.start(), old);
+                }
+                bitmap.vacate(old.carId(), old.start(), old.end());
+            }
+        } finally {
+            bitmapLock.writeLock().unlock();
+        }
+    }
+
+    // Raz na dobę przesuwamy okno kalendarza i odtwarzamy dni z list przedziałów
+    private void rollWindow() {
+        LocalDate today = LocalDate.now(clock);
+        if (!today.isAfter(bitmap.origin())) {
+            return;
+        }
+        bitmapLock.writeLock().lock();
+        try {
+            if (today.isAfter(bitmap.origin())) {
+                bitmap.reset(today);
+                byReservation.values().forEach(b -> bitmap.occupy(b.carId(), b.start(), b.end()));
+            }
+        } finally {
+            bitmapLock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
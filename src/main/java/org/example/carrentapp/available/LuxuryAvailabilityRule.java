@@ -0,0 +1,23 @@
+package org.example.carrentapp.available;
+
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.LuxuryCar;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+// Odpowiednik LuxuryCar.getAvailable(): starsze roczniki nie są wynajmowane
+@Component
+public class LuxuryAvailabilityRule implements AvailabilityRule {
+
+    @Override
+    public Class<? extends Car> category() {
+        return LuxuryCar.class;
+    }
+
+    @Override
+    public Specification<Car> predicate() {
+        return (root, query, cb) -> cb.and(
+                cb.isTrue(root.get("available")),
+                cb.greaterThan(root.get("year"), LuxuryCar.LAST_RETIRED_YEAR));
+    }
+}
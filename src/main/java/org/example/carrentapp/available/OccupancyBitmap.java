@@ -0,0 +1,156 @@
+package org.example.carrentapp.available;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kalendarz zajętości floty: dla każdego dnia w oknie [origin, origin + horizonDays)
+ * bitset z jednym bitem na auto (1 = auto zajęte tego dnia).
+ * <p>
+ * "Które auta są wolne od D1 do D2" to OR kilku bitsetów dziennych i AND NOT z maską floty,
+ * czyli kilka operacji na słowach 64-bitowych na każde 64 auta. Klasa nie jest
+ * bezpieczna wątkowo – synchronizację zapewnia CarAvailabilityIndex.
+ */
+class OccupancyBitmap {
+
+    private final int horizonDays;
+    private LocalDate origin;
+
+    private final Map<Long, Integer> slotByCar = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private long[] carIdBySlot = new long[64];
+    private int slotCount;
+
+    private long[] fleetMask = new long[1];
+    private final long[][] days;
+
+    OccupancyBitmap(LocalDate origin, int horizonDays) {
+        this.origin = origin;
+        this.horizonDays = horizonDays;
+        this.days = new long[horizonDays][];
+    }
+
+    LocalDate origin() {
+        return origin;
+    }
+
+    // Czy przedział mieści się w oknie kalendarza
+    boolean covers(LocalDate start, LocalDate end) {
+        return !start.isBefore(origin) && dayOffset(end) < horizonDays;
+    }
+
+    void addCar(long carId) {
+        if (slotByCar.containsKey(carId)) {
+            return;
+        }
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        ensureCapacity(slot);
+        slotByCar.put(carId, slot);
+        carIdBySlot[slot] = carId;
+        fleetMask[slot >>> 6] |= 1L << slot;
+    }
+
+    void removeCar(long carId) {
+        Integer slot = slotByCar.remove(carId);
+        if (slot == null) {
+            return;
+        }
+        long clear = ~(1L << slot);
+        fleetMask[slot >>> 6] &= clear;
+        for (long[] day : days) {
+            if (day != null && (slot >>> 6) < day.length) {
+                day[slot >>> 6] &= clear;
+            }
+        }
+        freeSlots.push(slot);
+    }
+
+    void occupy(long carId, LocalDate start, LocalDate end) {
+        mark(carId, start, end, true);
+    }
+
+    void vacate(long carId, LocalDate start, LocalDate end) {
+        mark(carId, start, end, false);
+    }
+
+    // Id aut wolnych przez cały przedział [start, end]; zakłada covers(start, end)
+    List<Long> freeCars(LocalDate start, LocalDate end) {
+        long[] free = fleetMask.clone();
+        int from = (int) dayOffset(start);
+        int to = (int) dayOffset(end);
+        for (int d = from; d <= to; d++) {
+            long[] day = days[d];
+            if (day == null) {
+                continue;
+            }
+            int words = Math.min(free.length, day.length);
+            for (int w = 0; w < words; w++) {
+                free[w] &= ~day[w];
+            }
+        }
+        List<Long> result = new ArrayList<>();
+        for (int w = 0; w < free.length; w++) {
+            long word = free[w];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                result.add(carIdBySlot[(w << 6) + bit]);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    // Przesuwa okno na nowy początek i czyści wszystkie dni (flota zostaje)
+    void reset(LocalDate newOrigin) {
+        origin = newOrigin;
+        Arrays.fill(days, null);
+    }
+
+    private void mark(long carId, LocalDate start, LocalDate end, boolean occupied) {
+        Integer slot = slotByCar.get(carId);
+        if (slot == null) {
+            return;
+        }
+        long from = Math.max(0, dayOffset(start));
+        long to = Math.min(horizonDays - 1L, dayOffset(end));
+        int word = slot >>> 6;
+        long bit = 1L << slot;
+        for (int d = (int) from; d <= to; d++) {
+            if (occupied) {
+                if (days[d] == null) {
+                    days[d] = new long[fleetMask.length];
+                }
+                days[d][word] |= bit;
+            } else if (days[d] != null) {
+                days[d][word] &= ~bit;
+            }
+        }
+    }
+
+    private long dayOffset(LocalDate date) {
+        return ChronoUnit.DAYS.between(origin, date);
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot >= carIdBySlot.length) {
+            carIdBySlot = Arrays.copyOf(carIdBySlot, Math.max(slot + 1, carIdBySlot.length * 2));
+        }
+        int words = (slot >>> 6) + 1;
+        if (words > fleetMask.length) {
+            int newLength = Math.max(words, fleetMask.length * 2);
+            fleetMask = Arrays.copyOf(fleetMask, newLength);
+            for (int d = 0; d < days.length; d++) {
+                if (days[d] != null) {
+                    days[d] = Arrays.copyOf(days[d], newLength);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.carrentapp.available;
+
+import org.example.carrentapp.entity.Car;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+// Auto zwykłe (i każda kategoria bez własnej reguły): wystarczy flaga available
+@Component
+public class StandardAvailabilityRule implements AvailabilityRule {
+
+    @Override
+    public Class<? extends Car> category() {
+        return Car.class;
+    }
+
+    @Override
+    public Specification<Car> predicate() {
+        return (root, query, cb) -> cb.isTrue(root.get("available"));
+    }
+}
@@ -1,10 +1,21 @@
 // src/main/java/org/example/carrentapp/config/JacksonConfig.java
 package org.example.carrentapp.config;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class JacksonConfig {
@@ -12,4 +23,54 @@ public class JacksonConfig {
     public Module javaTimeModule() {
         return new JavaTimeModule();
     }
+
+    // Gettery/settery wołane przez wygenerowane lambdy (LambdaMetafactory) zamiast refleksji
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // Proxy Hibernate serializowane jako encja docelowa (zamiast list "hibernateLazyInitializer" na encjach);
+    // leniwe relacje, które i tak trafiają do JSON (np. role użytkownika), są doczytywane jak dotąd
+    @Bean
+    public Module hibernateModule() {
+        return new Hibernate6Module().enable(Hibernate6Module.Feature.FORCE_LAZY_LOADING);
+    }
+
+    // Daty jako krótkie napisy ISO ("2025-07-01"), nie tablice [2025,7,1]
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer jacksonDefaults() {
+        return builder -> builder.featuresToDisable(
+                SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+
+    // Binarne odpowiedzi dla wewnętrznych klientów (Accept: application/cbor lub application/x-jackson-smile).
+    // Builder Spring Boota niesie te same moduły i ustawienia co JSON; JSON zostaje domyślny.
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    // Ta sama konfiguracja poza kontekstem Springa (benchmarki, testy)
+    public static ObjectMapper objectMapper() {
+        return builder().build();
+    }
+
+    // j.w. dla innego formatu, np. new CBORFactory()
+    public static ObjectMapper objectMapper(JsonFactory factory) {
+        return builder().factory(factory).build();
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        JacksonConfig config = new JacksonConfig();
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(config.javaTimeModule(), config.blackbirdModule(), config.hibernateModule());
+        config.jacksonDefaults().customize(builder);
+        return builder;
+    }
 }
@@ -1,11 +1,82 @@
 package org.example.carrentapp.config;
 
+import org.example.carrentapp.security.PasswordHashCalibrator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class SecurityBeans {
 
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+    public static final String PBKDF2 = "pbkdf2";
+
+    // Minimalne koszty nowych hashy (zalecenia Spring Security 5.8 dla PBKDF2 i Argon2)
+    private static final int PBKDF2_MIN_ITERATIONS = 310_000;
+    private static final int ARGON2_MIN_ITERATIONS = 2;
+    private static final int ARGON2_MEMORY_KB = 1 << 14;
+
+    private final String algorithm;
+    private final Duration targetLatency;
+
+    public SecurityBeans(@Value("${carrentapp.security.password.algorithm:bcrypt}") String algorithm,
+                         @Value("${carrentapp.security.password.target-latency:0}") Duration targetLatency) {
+        this.algorithm = algorithm;
+        this.targetLatency = targetLatency;
+    }
+
+    // Koszt BCrypt (log2 rund): bcrypt-strength to minimum, a gdy BCrypt hashuje nowe hasła,
+    // przy starcie podnosimy go do budżetu target-latency
+    @Bean
+    public BCryptPasswordEncoder bcryptPasswordEncoder(@Value("${carrentapp.security.bcrypt-strength:10}") int strength) {
+        Duration budget = BCRYPT.equals(algorithm) ? targetLatency : Duration.ZERO;
+        return new BCryptPasswordEncoder(
+                PasswordHashCalibrator.exponentialCost(BCryptPasswordEncoder::new, strength, 16, budget));
+    }
+
+    // Nowe hasła hashuje wybrany algorytm ({id} w prefiksie hasha), stare weryfikuje ten, którym powstały.
+    // Hashe bez prefiksu (sprzed wprowadzenia delegacji) to BCrypt.
+    @Bean
+    public DelegatingPasswordEncoder delegatingPasswordEncoder(BCryptPasswordEncoder bcrypt) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt,
+                ARGON2, argon2(ARGON2.equals(algorithm) ? targetLatency : Duration.ZERO),
+                PBKDF2, pbkdf2(PBKDF2.equals(algorithm) ? targetLatency : Duration.ZERO));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unknown password algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    private static Argon2PasswordEncoder argon2(Duration budget) {
+        int iterations = PasswordHashCalibrator.linearCost(SecurityBeans::argon2WithIterations,
+                ARGON2_MIN_ITERATIONS, 100, budget);
+        return argon2WithIterations(iterations);
+    }
+
+    private static Argon2PasswordEncoder argon2WithIterations(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, ARGON2_MEMORY_KB, iterations);
+    }
+
+    private static Pbkdf2PasswordEncoder pbkdf2(Duration budget) {
+        int iterations = PasswordHashCalibrator.linearCost(SecurityBeans::pbkdf2WithIterations,
+                PBKDF2_MIN_ITERATIONS, 10_000_000, budget);
+        return pbkdf2WithIterations(iterations);
+    }
+
+    private static Pbkdf2PasswordEncoder pbkdf2WithIterations(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
 }
@@ -3,15 +3,22 @@ package org.example.carrentapp.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.example.carrentapp.available.IfAvailable;
+import org.example.carrentapp.dto.CursorPageDto;
 import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
 import org.example.carrentapp.entity.LuxuryCar; // Dodajemy LuxuryCar
 import org.example.carrentapp.entity.EconomyCar; // Dodajemy EconomyCar
+import org.example.carrentapp.service.ExportService;
 import org.example.carrentapp.service.CarService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -20,22 +27,90 @@ import java.util.List;
 public class CarController {
 
     private final CarService carService;
+    private final ExportService exportService;
 
-    public CarController(CarService carService) {
+    public CarController(CarService carService, ExportService exportService) {
         this.carService = carService;
+        this.exportService = exportService;
     }
 
     @GetMapping
-    @Operation(summary = "List all cars", description = "Retrieves all cars.")
+    @Operation(summary = "List cars", deprecated = true,
+            description = "Returns at most " + CarService.MAX_PAGE_SIZE + " cars ordered by id. Use /page to read further or /export for the whole fleet.")
     public ResponseEntity<List<Car>> getAllCars() {
         return ResponseEntity.ok(carService.getAllCars());
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Export all cars", description = "Streams all cars as a JSON array with constant server memory.")
+    public ResponseEntity<StreamingResponseBody> exportCarsJson() {
+        StreamingResponseBody body = out -> exportService.exportCars(out, ExportService.Format.JSON_ARRAY);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all cars as NDJSON", description = "Streams all cars, one JSON document per line.")
+    public ResponseEntity<StreamingResponseBody> exportCarsNdjson() {
+        StreamingResponseBody body = out -> exportService.exportCars(out, ExportService.Format.NDJSON);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "List cars page by page",
+            description = "Keyset pagination ordered by id: pass nextCursor from the previous page as 'after'. Optional category/make/model/year/available filters.")
+    public ResponseEntity<CursorPageDto<Car>> getCarsPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) CarCategory category,
+            @RequestParam(required = false) String make,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "" + CarService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        return ResponseEntity.ok(carService.getCarsPage(after, category, make, model, year, available, size));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search cars by make and model",
+            description = "Full-text search: every word matches the start of a word in make/model, or the whole query matches any part of the name. Best matches first.")
+    public ResponseEntity<List<Car>> searchCars(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + CarService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        return ResponseEntity.ok(carService.searchCars(q, limit));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete make and model",
+            description = "Suggests makes, models and 'make model' names starting with the prefix, alphabetically. Served from memory.")
+    public ResponseEntity<List<String>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(carService.autocomplete(prefix, limit));
+    }
+
+    @GetMapping(value = "/available", params = {"start", "end"})
+    @Operation(summary = "List cars free in a period",
+            description = "Cars without reservations between start and end, page by page ordered by id: pass nextCursor from the previous page as 'after'. Optional category filter.")
+    public ResponseEntity<CursorPageDto<Car>> getCarsFreeInPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) CarCategory category,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CarService.DEFAULT_PAGE_SIZE) int size
+    ) {
+        return ResponseEntity.ok(carService.findAvailableCars(start, end, category, after, size));
+    }
+
     @GetMapping("/available")
-    @Operation(summary = "List available cars", description = "Retrieves only cars with available=true.")
-    public ResponseEntity<List<Car>> getAvailableCars() {
+    @Operation(summary = "List available cars",
+            description = "Retrieves cars available under their category rules. Optional category filter.")
+    public ResponseEntity<List<Car>> getAvailableCars(@RequestParam(required = false) CarCategory category) {
         // Używamy metody serwisu do pobrania dostępnych samochodów
-        List<Car> availableCars = carService.findAvailableCars();
+        List<Car> availableCars = category == null
+                ? carService.findAvailableCars()
+                : carService.findAvailableCars(category);
         return ResponseEntity.ok(availableCars);
     }
 
@@ -4,13 +4,21 @@ package org.example.carrentapp.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.dto.ReservationViewDto;
 import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.ReservationStatus;
+import org.example.carrentapp.service.ExportService;
 import org.example.carrentapp.service.ReservationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -19,17 +27,43 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ExportService exportService;
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, ExportService exportService) {
         this.reservationService = reservationService;
+        this.exportService = exportService;
     }
 
     @GetMapping
     @Operation(summary = "List all reservations", description = "Retrieves all reservations.")
-    public ResponseEntity<List<Reservation>> getAllReservations() {
+    public ResponseEntity<List<ReservationViewDto>> getAllReservations() {
         return ResponseEntity.ok(reservationService.getAllReservations());
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Export all reservations", description = "Streams all reservations as a JSON array with constant server memory.")
+    public ResponseEntity<StreamingResponseBody> exportReservationsJson() {
+        StreamingResponseBody body = out -> exportService.exportReservations(out, ExportService.Format.JSON_ARRAY);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all reservations as NDJSON", description = "Streams all reservations, one JSON document per line.")
+    public ResponseEntity<StreamingResponseBody> exportReservationsNdjson() {
+        StreamingResponseBody body = out -> exportService.exportReservations(out, ExportService.Format.NDJSON);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/availability")
+    @Operation(summary = "Check car availability", description = "Checks whether a car is free in the given date range.")
+    public ResponseEntity<Boolean> isCarFree(
+            @RequestParam Long carId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end
+    ) {
+        return ResponseEntity.ok(reservationService.isCarFree(carId, start, end));
+    }
+
     @PostMapping
     @Operation(summary = "Create a new reservation", description = "Adds a new reservation to the database.")
     public ResponseEntity<Void> createReservation(@RequestBody ReservationDto dto) {
@@ -41,10 +75,16 @@ public class ReservationController {
         return ResponseEntity.created(location).build();
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create many reservations", description = "Creates all reservations in one transaction (all or nothing) and returns their IDs in request order.")
+    public ResponseEntity<List<Long>> createReservations(@RequestBody List<ReservationDto> dtos) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.createReservations(dtos));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get reservation by ID", description = "Retrieves a reservation by ID.")
-    public ResponseEntity<Reservation> getReservationById(@PathVariable Long id) {
-        Reservation found = reservationService.getReservationById(id);
+    public ResponseEntity<ReservationViewDto> getReservationById(@PathVariable Long id) {
+        ReservationViewDto found = reservationService.getReservationById(id);
         return found != null
                 ? ResponseEntity.ok(found)
                 : ResponseEntity.notFound().build();
@@ -62,6 +102,17 @@ public class ReservationController {
                 : ResponseEntity.notFound().build();
     }
 
+    @PatchMapping("/{id}/status")
+    @Operation(summary = "Change reservation status",
+            description = "Moves a reservation through PENDING -> CONFIRMED -> ACTIVE -> RETURNED; PENDING and CONFIRMED can be CANCELLED. Cancelled and returned reservations stay in history but no longer block the car.")
+    public ResponseEntity<ReservationViewDto> changeStatus(@PathVariable Long id,
+                                                           @RequestParam ReservationStatus status) {
+        ReservationViewDto changed = reservationService.changeStatus(id, status);
+        return changed != null
+                ? ResponseEntity.ok(changed)
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete reservation", description = "Deletes a reservation by ID.")
     public ResponseEntity<Void> deleteReservation(@PathVariable Long id) {
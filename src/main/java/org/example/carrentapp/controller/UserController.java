@@ -2,10 +2,16 @@ package org.example.carrentapp.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.carrentapp.dto.UserDto;
+import org.example.carrentapp.dto.UserSummaryDto;
 import org.example.carrentapp.entity.User;
+import org.example.carrentapp.service.ExportService;
 import org.example.carrentapp.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -17,9 +23,11 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ExportService exportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ExportService exportService) {
         this.userService = userService;
+        this.exportService = exportService;
     }
 
     @GetMapping
@@ -28,6 +36,26 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping("/summary")
+    @Operation(summary = "List users without roles", description = "Retrieves id, username and email of all users in a single query.")
+    public ResponseEntity<List<UserSummaryDto>> getUserSummaries() {
+        return ResponseEntity.ok(userService.getUserSummaries());
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Export all users", description = "Streams all users as a JSON array with constant server memory.")
+    public ResponseEntity<StreamingResponseBody> exportUsersJson() {
+        StreamingResponseBody body = out -> exportService.exportUsers(out, ExportService.Format.JSON_ARRAY);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users as NDJSON", description = "Streams all users, one JSON document per line.")
+    public ResponseEntity<StreamingResponseBody> exportUsersNdjson() {
+        StreamingResponseBody body = out -> exportService.exportUsers(out, ExportService.Format.NDJSON);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping
     @Operation(summary = "Create a new user", description = "Adds a new user to the database.")
     public ResponseEntity<User> createUser(@RequestBody User user) {
@@ -36,6 +64,12 @@ public class UserController {
         return ResponseEntity.ok(created);
     }
 
+    @PostMapping("/import")
+    @Operation(summary = "Import many users", description = "Registers all users in one batch (all or nothing) and returns their IDs in request order.")
+    public ResponseEntity<List<Long>> importUsers(@RequestBody List<User> users) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(userService.importUsers(users));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Retrieves a user by ID.")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
@@ -57,6 +91,14 @@ public class UserController {
                 : ResponseEntity.notFound().build();
     }
 
+    @PutMapping("/{id}/password")
+    @Operation(summary = "Change password", description = "Sets a new password for an existing user; only the password field of the body is used.")
+    public ResponseEntity<Void> changePassword(@PathVariable Long id, @RequestBody UserDto payload) {
+        return userService.changePassword(id, payload.getPassword())
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete user", description = "Deletes a user by ID.")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
@@ -0,0 +1,14 @@
+package org.example.carrentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Tylko nazwa auta – do budowy indeksu autouzupełniania bez ładowania całych encji
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class CarNameDto {
+    private Long id;
+    private String make;
+    private String model;
+}
@@ -0,0 +1,15 @@
+package org.example.carrentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Strona wyników stronicowania "keyset": nextCursor to id ostatniego elementu (null = koniec)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
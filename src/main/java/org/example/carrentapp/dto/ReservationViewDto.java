@@ -0,0 +1,27 @@
+package org.example.carrentapp.dto;
+
+import org.example.carrentapp.entity.ReservationStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Rezerwacja do odczytu (lista i pobranie po id): auto i użytkownik tylko z polami potrzebnymi
+ * klientowi, zbudowane z jednego zapytania z joinami – bez encji, proxy i doczytywania per wiersz.
+ * Kształt JSON (car.id, user.id, ...) zgadza się z dotychczasową encją.
+ */
+public record ReservationViewDto(Long id, LocalDate startDate, LocalDate endDate, ReservationStatus status,
+                                 CarRef car, UserRef user) {
+
+    public record CarRef(Long id, String make, String model) {
+    }
+
+    public record UserRef(Long id, String username) {
+    }
+
+    // Płaskie argumenty dla wyrażenia "select new" w JPQL
+    public ReservationViewDto(Long id, LocalDate startDate, LocalDate endDate, ReservationStatus status,
+                              Long carId, String carMake, String carModel,
+                              Long userId, String username) {
+        this(id, startDate, endDate, status, new CarRef(carId, carMake, carModel), new UserRef(userId, username));
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.carrentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Użytkownik bez ról i hasła – do list, które nie potrzebują uprawnień
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String username;
+    private String email;
+}
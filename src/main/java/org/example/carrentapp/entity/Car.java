@@ -1,11 +1,14 @@
 package org.example.carrentapp.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.example.carrentapp.available.IfAvailable;
 
 import java.util.HashSet;
@@ -14,15 +17,35 @@ import java.util.Set;
 
 @Entity
 @Table(name = "cars")
+// Jedna tabela dla całej hierarchii; podklasę wskazuje kolumna category (V9)
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn(name = "category", length = 16)
+@DiscriminatorValue("STANDARD")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cars")
 @Getter
 @Setter
 @NoArgsConstructor
-@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
+// W JSON kategoria to zwykłe pole "category"; przy odczycie wybiera podklasę (brak = STANDARD)
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXISTING_PROPERTY, property = "category",
+        defaultImpl = Car.class)
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = Car.class, name = "STANDARD"),
+        @JsonSubTypes.Type(value = EconomyCar.class, name = "ECONOMY"),
+        @JsonSubTypes.Type(value = LuxuryCar.class, name = "LUXURY")
+})
 public class Car implements IfAvailable {
+    // Sekwencja z pulą 50 id (V4) – przy IDENTITY Hibernate nie może batchować insertów
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_id_seq", allocationSize = 50)
     private Long id;
 
+    // Wersja do blokowania optymistycznego (podbijana przy każdej rezerwacji auta)
+    @JsonIgnore
+    @Version
+    private Long version;
+
     @Column(nullable = false, length = 100)
     private String make;
 
@@ -40,6 +63,11 @@ public class Car implements IfAvailable {
     @OneToMany(mappedBy = "car", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Reservation> reservations = new HashSet<>();
 
+    // Kategoria wynika z klasy encji (wołane na proxy trafia do właściwego obiektu)
+    public CarCategory getCategory() {
+        return CarCategory.of(getClass());
+    }
+
     // Implementacja metody getAvailable() z interfejsu IfAvailable
     @Override
     public boolean getAvailable() {
@@ -0,0 +1,30 @@
+package org.example.carrentapp.entity;
+
+/**
+ * Kategorie aut; nazwa to wartość kolumny dyskryminatora cars.category
+ * (i pola "category" w JSON).
+ */
+public enum CarCategory {
+    STANDARD(Car.class),
+    ECONOMY(EconomyCar.class),
+    LUXURY(LuxuryCar.class);
+
+    private final Class<? extends Car> type;
+
+    CarCategory(Class<? extends Car> type) {
+        this.type = type;
+    }
+
+    public Class<? extends Car> type() {
+        return type;
+    }
+
+    public static CarCategory of(Class<?> type) {
+        for (CarCategory category : values()) {
+            if (category.type == type) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Unknown car category: " + type.getName());
+    }
+}
@@ -1,7 +1,11 @@
 package org.example.carrentapp.entity;
 
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
 import org.example.carrentapp.entity.Car;
 
+@Entity
+@DiscriminatorValue("ECONOMY")
 public class EconomyCar extends Car {
     @Override
     public boolean getAvailable() {
@@ -1,11 +1,18 @@
 package org.example.carrentapp.entity;
 
+import jakarta.persistence.DiscriminatorValue;
+import jakarta.persistence.Entity;
 import org.example.carrentapp.entity.Car;
 
+@Entity
+@DiscriminatorValue("LUXURY")
 public class LuxuryCar extends Car {
+    // Roczniki do tego włącznie nie są już wynajmowane (to samo w LuxuryAvailabilityRule)
+    public static final int LAST_RETIRED_YEAR = 2018;
+
     @Override
     public boolean getAvailable() {
 
-        return super.getAvailable() && this.getYear() > 2018;
+        return super.getAvailable() && this.getYear() > LAST_RETIRED_YEAR;
     }
 }
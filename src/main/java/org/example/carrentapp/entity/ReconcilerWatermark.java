@@ -0,0 +1,31 @@
+package org.example.carrentapp.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Miejsce, w którym zadanie przyrostowe skończyło ostatni przebieg:
+ * ostatnia przetworzona rezerwacja w porządku (lastDate, lastId).
+ */
+@Entity
+@Table(name = "reconciler_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconcilerWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDate lastDate;
+
+    @Column(nullable = false)
+    private Long lastId;
+}
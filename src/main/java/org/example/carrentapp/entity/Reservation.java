@@ -1,5 +1,6 @@
 package org.example.carrentapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -12,18 +13,30 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @NoArgsConstructor
-@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Reservation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservations_seq")
+    @SequenceGenerator(name = "reservations_seq", sequenceName = "reservations_id_seq", allocationSize = 50)
     private Long id;
 
+    // Wersja do blokowania optymistycznego
+    @JsonIgnore
+    @Version
+    private Long version;
+
     @Column(nullable = false)
     private LocalDate startDate;
 
     @Column(nullable = false)
     private LocalDate endDate;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ReservationStatus status = ReservationStatus.PENDING;
+
+    // Bez ról: przy FORCE_LAZY_LOADING każdy użytkownik w odpowiedzi lub eksporcie rezerwacji
+    // dociągałby je osobnym zapytaniem
+    @JsonIgnoreProperties("roles")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
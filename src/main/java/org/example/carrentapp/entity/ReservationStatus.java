@@ -0,0 +1,33 @@
+package org.example.carrentapp.entity;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Cykl życia rezerwacji:
+ * PENDING → CONFIRMED → ACTIVE → RETURNED, a PENDING i CONFIRMED można jeszcze anulować (CANCELLED).
+ * Auto blokują tylko stany aktywne ({@link #isActive()}); zakończone rezerwacje zostają jako historia.
+ */
+public enum ReservationStatus {
+    PENDING,
+    CONFIRMED,
+    ACTIVE,
+    RETURNED,
+    CANCELLED;
+
+    // Stany aktywne; ten sam zbiór jest w warunku indeksów częściowych (V7) i w zapytaniach repozytorium
+    public static final Set<ReservationStatus> ACTIVE_STATES = EnumSet.of(PENDING, CONFIRMED, ACTIVE);
+
+    public boolean isActive() {
+        return ACTIVE_STATES.contains(this);
+    }
+
+    public boolean canTransitionTo(ReservationStatus target) {
+        return switch (this) {
+            case PENDING -> target == CONFIRMED || target == CANCELLED;
+            case CONFIRMED -> target == ACTIVE || target == CANCELLED;
+            case ACTIVE -> target == RETURNED;
+            case RETURNED, CANCELLED -> false;
+        };
+    }
+}
@@ -2,7 +2,6 @@
 package org.example.carrentapp.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -17,10 +16,10 @@ import java.util.Set;
 @Getter
 @Setter
 @NoArgsConstructor
-@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 255)
@@ -35,7 +34,9 @@ public class User {
     @Column(nullable = false, unique = true, length = 255)
     private String email;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Role ładowane dopiero na żądanie: listy biorą je entity graphem, logowanie join fetchem,
+    // pojedyncze encje paczkami (default_batch_fetch_size); JSON rezerwacji pomija je (Reservation.user)
+    @ManyToMany
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -1,12 +1,74 @@
 package org.example.carrentapp.repository;
 
+import org.example.carrentapp.dto.CarNameDto;
 import org.example.carrentapp.entity.Car;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.example.carrentapp.repository.ReservationRepository.EXPORT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
-    List<Car> findByAvailableTrue();
-}
\ No newline at end of file
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
+    // Wyrażenie z indeksu trigramowego V10 – musi się zgadzać co do znaku, inaczej planista go nie użyje
+    String SEARCH_TEXT = "lower(coalesce(c.make, '') || ' ' || coalesce(c.model, ''))";
+
+    // Jedyne wywołanie to CarService.findAvailableCars (reguły dostępności z AvailabilityRules) – wynik idzie
+    // do cache zapytań; każdy zapis do cars go unieważnia
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Car> findAll(Specification<Car> spec, Sort sort);
+
+    // SELECT ... FOR UPDATE – blokada wiersza auta do końca transakcji
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Car c where c.id = :id")
+    Optional<Car> findByIdForUpdate(Long id);
+
+    // Wersja auta zostanie podbita przy commicie, więc równoległa rezerwacja tego auta się nie powiedzie
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select c from Car c where c.id = :id")
+    Optional<Car> findByIdForBooking(Long id);
+
+    // Wersje zbiorcze (rezerwacje hurtowe); kolejność po id, żeby blokady zakładać zawsze w tej samej kolejności
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Car c where c.id in :ids order by c.id")
+    List<Car> findAllByIdForUpdate(Collection<Long> ids);
+
+    // Podbicia wersji idą paczkami JDBC osobno dla każdej podklasy, dlatego najpierw grupujemy po kategorii
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select c from Car c where c.id in :ids order by type(c), c.id")
+    List<Car> findAllByIdForBooking(Collection<Long> ids);
+
+    @Query("select c.id from Car c")
+    List<Long> findAllIds();
+
+    @Query("select new org.example.carrentapp.dto.CarNameDto(c.id, c.make, c.model) from Car c")
+    List<CarNameDto> findAllNames();
+
+    // Całe słowa lub ich początki (tsvector, ranking ts_rank) albo dowolny fragment nazwy (trigramy)
+    @Query(value = "select c.* from cars c"
+            + " where c.search_vector @@ to_tsquery('simple', :tsQuery) or " + SEARCH_TEXT + " like :pattern"
+            + " order by ts_rank(c.search_vector, to_tsquery('simple', :tsQuery)) desc, c.id"
+            + " limit :limit", nativeQuery = true)
+    List<Car> search(String tsQuery, String pattern, int limit);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select c from Car c order by c.id")
+    Stream<Car> streamAllBy();
+}
@@ -0,0 +1,39 @@
+package org.example.carrentapp.repository;
+
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+// Warunki do zapytań o auta; null oznacza "bez filtra", więc nie trafia do SQL
+public final class CarSpecifications {
+
+    private CarSpecifications() {
+    }
+
+    public static Specification<Car> idGreaterThan(Long afterId) {
+        return afterId == null ? null : (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    public static Specification<Car> hasMake(String make) {
+        return make == null ? null : (root, query, cb) -> cb.equal(root.get("make"), make);
+    }
+
+    public static Specification<Car> hasModel(String model) {
+        return model == null ? null : (root, query, cb) -> cb.equal(root.get("model"), model);
+    }
+
+    public static Specification<Car> hasYear(Integer year) {
+        return year == null ? null : (root, query, cb) -> cb.equal(root.get("year"), year);
+    }
+
+    // Dokładnie ta kategoria (type(c) = ..., czyli warunek na kolumnę category), bez podklas
+    public static Specification<Car> inCategory(CarCategory category) {
+        return category == null ? null : (root, query, cb) -> cb.equal(root.type(), category.type());
+    }
+
+    public static Specification<Car> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.carrentapp.repository;
+
+import org.example.carrentapp.entity.ReconcilerWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconcilerWatermarkRepository extends JpaRepository<ReconcilerWatermark, String> {
+}
@@ -1,19 +1,85 @@
 package org.example.carrentapp.repository;
 
+import org.example.carrentapp.dto.ReservationViewDto;
 import org.example.carrentapp.entity.Car;
 import org.example.carrentapp.entity.Reservation;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    // Rozmiar paczki pobieranej z kursora przy eksporcie strumieniowym
+    String EXPORT_FETCH_SIZE = "500";
+
+    String VIEW_SELECT = "select new org.example.carrentapp.dto.ReservationViewDto("
+            + "r.id, r.startDate, r.endDate, r.status, c.id, c.make, c.model, u.id, u.username) "
+            + "from Reservation r join r.car c join r.user u";
+
+    // Stany aktywne jako literały: tylko wtedy planista dopasuje indeks częściowy z V7
+    // (warunek musi się zgadzać z ReservationStatus.ACTIVE_STATES)
+    String ACTIVE = "r.status in (org.example.carrentapp.entity.ReservationStatus.PENDING, "
+            + "org.example.carrentapp.entity.ReservationStatus.CONFIRMED, "
+            + "org.example.carrentapp.entity.ReservationStatus.ACTIVE)";
+
+    String OVERLAPS = "r.startDate <= :end and r.endDate >= :start";
+
     List<Reservation> findByUserId(Long userId);
 
+    @Query(VIEW_SELECT + " order by r.id")
+    List<ReservationViewDto> findAllViews();
+
+    @Query(VIEW_SELECT + " where r.id = :id")
+    Optional<ReservationViewDto> findViewById(Long id);
+
     List<Reservation> findByCarAndStartDateBeforeAndEndDateAfter(Car car, LocalDate startDate, LocalDate endDate);
 
-    List<Reservation> findByCarIdAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-            Long carId, LocalDate end, LocalDate start);
-}
\ No newline at end of file
+    // Aktywne rezerwacje auta nachodzące na przedział [start, end] (obie daty włącznie)
+    @Query("select r from Reservation r where r.car.id = :carId and " + OVERLAPS + " and " + ACTIVE)
+    List<Reservation> findActiveOverlaps(Long carId, LocalDate start, LocalDate end);
+
+    // Ograniczenie wykluczające z V7 pozwala na co najwyżej kilka takich wierszy, więc count wystarcza
+    @Query("select count(r) > 0 from Reservation r where r.car.id = :carId and " + OVERLAPS + " and " + ACTIVE)
+    boolean existsActiveOverlap(Long carId, LocalDate start, LocalDate end);
+
+    // To samo dla wielu aut – jedno zapytanie dla całej paczki
+    @Query("select r from Reservation r where r.car.id in :carIds and " + OVERLAPS + " and " + ACTIVE)
+    List<Reservation> findActiveOverlapsForCars(Collection<Long> carIds, LocalDate start, LocalDate end);
+
+    @Query("select r from Reservation r where " + ACTIVE)
+    List<Reservation> findAllActive();
+
+    // Auta, które coś teraz blokuje: trwający wynajem (ACTIVE, także po terminie zwrotu)
+    // albo aktywna rezerwacja obejmująca :today; przyszłe terminy nie zdejmują auta z puli
+    @Query("select distinct r.car.id from Reservation r where r.car.id in :carIds and " + ACTIVE
+            + " and (r.status = org.example.carrentapp.entity.ReservationStatus.ACTIVE"
+            + " or (r.startDate <= :today and r.endDate >= :today))")
+    List<Long> findBlockedCarIds(Collection<Long> carIds, LocalDate today);
+
+    // Rezerwacje zakończone przed :today, następne po (afterDate, afterId) w porządku (endDate, id)
+    @Query("select r from Reservation r where r.endDate < :today and r.endDate >= :afterDate"
+            + " and (r.endDate > :afterDate or r.id > :afterId) order by r.endDate, r.id")
+    List<Reservation> findEndedAfter(LocalDate afterDate, Long afterId, LocalDate today, Limit limit);
+
+    // Aktywne rezerwacje rozpoczęte najpóźniej :today, następne po (afterDate, afterId) w porządku (startDate, id)
+    @Query("select r from Reservation r where r.startDate <= :today and r.startDate >= :afterDate"
+            + " and (r.startDate > :afterDate or r.id > :afterId) and " + ACTIVE + " order by r.startDate, r.id")
+    List<Reservation> findStartedAfter(LocalDate afterDate, Long afterId, LocalDate today, Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select r from Reservation r join fetch r.car join fetch r.user order by r.id")
+    Stream<Reservation> streamAllBy();
+}
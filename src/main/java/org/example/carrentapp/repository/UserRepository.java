@@ -1,15 +1,67 @@
 package org.example.carrentapp.repository;
 
+import org.example.carrentapp.dto.UserSummaryDto;
 import org.example.carrentapp.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    // Lista użytkowników razem z rolami w jednym zapytaniu (role są leniwe)
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    List<User> findAll();
+
+    // Lista bez ról – sam wiersz users, bez encji i bez kontekstu utrwalania
+    @Query("select new org.example.carrentapp.dto.UserSummaryDto(u.id, u.username, u.email) from User u order by u.id")
+    List<UserSummaryDto> findAllSummaries();
+
     boolean existsByEmail(String email);
+
+    // Które z podanych nazw i e-maili są już zajęte – jedno zapytanie dla rejestracji i importu
+    @Query("select u.username as username, u.email as email from User u " +
+            "where u.username in :usernames or u.email in :emails")
+    List<UserIdentity> findIdentities(Collection<String> usernames, Collection<String> emails);
+
+    // Logowanie: użytkownik razem z rolami w jednym zapytaniu
+    @Query("select u from User u left join fetch u.roles where u.username = :username")
+    Optional<User> findWithRolesByUsername(String username);
+
+    // Zapis przeliczonego hasha po logowaniu (bez wczytywania encji)
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePasswordByUsername(String username, String password);
+
+    // Eksport paczkami: kolejne id (keyset), potem te konta z rolami jednym zapytaniem. Ról nie da się dociągnąć
+    // join fetchem w kursorze z limitem, a leniwie ładowane dawałyby osobne zapytanie na każdego użytkownika.
+    @Query("select u.id from User u where u.id > :afterId order by u.id")
+    List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = "roles")
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("select u from User u where u.id in :ids order by u.id")
+    List<User> findWithRolesByIdIn(Collection<Long> ids);
+
+    interface UserIdentity {
+        String getUsername();
+
+        String getEmail();
+    }
 }
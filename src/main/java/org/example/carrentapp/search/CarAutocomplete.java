@@ -0,0 +1,95 @@
+package org.example.carrentapp.search;
+
+import org.example.carrentapp.dto.CarNameDto;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Autouzupełnianie nazw aut w pamięci: marka, model oraz "marka model" w jednym {@link PrefixTrie}.
+ * <p>
+ * Pamiętamy nazwy każdego auta, więc zmiana lub usunięcie auta aktualizuje tylko jego terminy
+ * (CarService), bez przebudowy całego drzewa i bez zapytań do bazy przy każdym naciśnięciu klawisza.
+ */
+@Component
+public class CarAutocomplete {
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final Map<Long, List<String>> termsByCar = new HashMap<>();
+    private final PrefixTrie trie = new PrefixTrie();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.complete(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Dodaje auto albo podmienia jego poprzednie nazwy
+    public void register(Long carId, String make, String model) {
+        lock.writeLock().lock();
+        try {
+            put(carId, make, model);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void unregister(Long carId) {
+        lock.writeLock().lock();
+        try {
+            List<String> old = termsByCar.remove(carId);
+            if (old != null) {
+                old.forEach(trie::remove);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Wypełnia indeks od nowa (przy starcie aplikacji)
+    public void rebuild(Collection<CarNameDto> cars) {
+        lock.writeLock().lock();
+        try {
+            termsByCar.clear();
+            trie.clear();
+            cars.forEach(c -> put(c.getId(), c.getMake(), c.getModel()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Long carId, String make, String model) {
+        List<String> old = termsByCar.remove(carId);
+        if (old != null) {
+            old.forEach(trie::remove);
+        }
+        List<String> terms = Stream.of(make, model, make != null && model != null ? make + " " + model : null)
+                .filter(t -> t != null && !t.isBlank())
+                .distinct()
+                .toList();
+        terms.forEach(trie::add);
+        termsByCar.put(carId, terms);
+    }
+}
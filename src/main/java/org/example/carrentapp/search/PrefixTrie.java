@@ -0,0 +1,108 @@
+package org.example.carrentapp.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * Drzewo prefiksowe terminów (bez rozróżniania wielkości liter).
+ * <p>
+ * Termin ma licznik wystąpień, więc znika dopiero razem z ostatnim autem, które go używa.
+ * Podpowiedzi są zwracane alfabetycznie, a przeszukiwanie poddrzewa kończy się po zebraniu limitu –
+ * koszt zależy od długości prefiksu i liczby podpowiedzi, a nie od liczby terminów.
+ * Klasa nie jest bezpieczna wątkowo; dostęp synchronizuje {@link CarAutocomplete}.
+ */
+public class PrefixTrie {
+
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private String term;
+        private int count;
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    public void add(String term) {
+        String key = normalize(term);
+        if (key.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        if (node.count++ == 0) {
+            node.term = term.strip();
+            size++;
+        }
+    }
+
+    public void remove(String term) {
+        String key = normalize(term);
+        if (key.isEmpty()) {
+            return;
+        }
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].children.get(key.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        Node last = path[key.length()];
+        if (last.count == 0 || --last.count > 0) {
+            return;
+        }
+        last.term = null;
+        size--;
+        // usuwamy puste gałęzie od końca, żeby drzewo nie rosło od skasowanych nazw
+        for (int i = key.length(); i > 0 && path[i].count == 0 && path[i].children.isEmpty(); i--) {
+            path[i - 1].children.remove(key.charAt(i - 1));
+        }
+    }
+
+    // Do limit terminów zaczynających się od prefix, alfabetycznie
+    public List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (limit <= 0) {
+            return result;
+        }
+        Node node = root;
+        // spacji na końcu nie ucinamy: "bmw " ma podpowiadać już tylko modele BMW
+        String key = prefix == null ? "" : prefix.stripLeading().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return result;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty() && result.size() < limit) {
+            Node current = stack.pop();
+            if (current.count > 0) {
+                result.add(current.term);
+            }
+            current.children.descendingMap().values().forEach(stack::push);
+        }
+        return result;
+    }
+
+    public void clear() {
+        root.children.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.strip().toLowerCase(Locale.ROOT);
+    }
+}
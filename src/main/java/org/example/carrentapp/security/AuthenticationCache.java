@@ -0,0 +1,102 @@
+package org.example.carrentapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Pamięć udanych uwierzytelnień HTTP Basic, żeby BCrypt liczył się raz na kilka minut,
+ * a nie przy każdym żądaniu.
+ * <p>
+ * Kluczem jest HMAC-SHA256(nazwa użytkownika + hasło) z kluczem losowanym przy starcie,
+ * więc w pamięci nie leży ani hasło, ani szybki do złamania skrót. Nieudane logowania nie
+ * są zapamiętywane – zgadywanie haseł dalej płaci pełny koszt BCrypt.
+ * <p>
+ * Trzymana jest tylko niezmienna migawka (nazwa + uprawnienia), a każde trafienie dostaje nowy
+ * token. Obiekt zwrócony przez providera DAO trafia do SecurityContext żądania, a ProviderManager
+ * czyści w nim poświadczenia – współdzielony między żądaniami zmieniałby się pod nimi.
+ */
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Cache<String, Snapshot> cache;
+    private final SecretKeySpec key;
+
+    public AuthenticationCache(@Value("${carrentapp.security.auth-cache.ttl:5m}") Duration ttl,
+                               @Value("${carrentapp.security.auth-cache.max-size:10000}") long maxSize,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authentication");
+    }
+
+    public Authentication get(String username, CharSequence password) {
+        Snapshot snapshot = cache.getIfPresent(key(username, password));
+        return snapshot == null ? null : snapshot.toAuthentication();
+    }
+
+    public void put(String username, CharSequence password, Authentication authentication) {
+        cache.put(key(username, password),
+                new Snapshot(authentication.getName(), List.copyOf(authentication.getAuthorities())));
+    }
+
+    // Po zmianie hasła, nazwy lub usunięciu konta; rzadkie, więc wystarczy przejrzeć wpisy
+    public void evict(String username) {
+        cache.asMap().values().removeIf(s -> s.username().equals(username));
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private String key(String username, CharSequence password) {
+        try {
+            // Mac nie jest bezpieczny wątkowo – nowa instancja na wywołanie (mikrosekundy)
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(password.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private record Snapshot(String username, List<GrantedAuthority> authorities) {
+
+        // Principal bez hasła, jak po wyczyszczeniu poświadczeń przez ProviderManager
+        Authentication toAuthentication() {
+            User principal = new User(username, "", authorities);
+            return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.carrentapp.security;
+
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Pierwszy administrator na pustej bazie – bez niego nikt nie mógłby założyć konta przez /api/users.
+ * Włączany tylko jawnie hasłem w {@code carrentapp.security.bootstrap-admin.password} (np. zmienna
+ * środowiskowa przy pierwszym wdrożeniu). Konto trafia do users / user_roles jak każde inne, więc można
+ * mu potem zmienić hasło lub je usunąć; gdy konto o tej nazwie już istnieje, nic się nie dzieje.
+ */
+@Component
+@ConditionalOnProperty("carrentapp.security.bootstrap-admin.password")
+public class BootstrapAdmin {
+
+    static final String ADMIN_ROLE = "ADMIN";
+
+    private final UserRepository userRepo;
+    private final RoleRepository roleRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final String username;
+    private final String email;
+    private final String password;
+
+    public BootstrapAdmin(UserRepository userRepo,
+                          RoleRepository roleRepo,
+                          PasswordEncoder passwordEncoder,
+                          @Value("${carrentapp.security.bootstrap-admin.username:admin}") String username,
+                          @Value("${carrentapp.security.bootstrap-admin.email:admin@localhost}") String email,
+                          @Value("${carrentapp.security.bootstrap-admin.password}") String password) {
+        this.userRepo = userRepo;
+        this.roleRepo = roleRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+    }
+
+    // Zwraca true, gdy konto zostało założone
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public boolean createIfMissing() {
+        if (userRepo.findByUsername(username).isPresent()) {
+            return false;
+        }
+        Role admin = roleRepo.findByName(ADMIN_ROLE).orElseGet(() -> {
+            Role role = new Role();
+            role.setName(ADMIN_ROLE);
+            return roleRepo.save(role);
+        });
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword(passwordEncoder.encode(password));
+        user.getRoles().add(admin);
+        userRepo.save(user);
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.carrentapp.security;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashowanie i weryfikacja haseł na osobnej, ograniczonej puli wątków. Wątek żądania
+ * (zwykle wirtualny) tylko czeka na wynik, więc seria rejestracji zajmuje najwyżej tyle rdzeni,
+ * ile wątków ma pula, a reszta żądań jest obsługiwana dalej.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    // Stała liczba wątków (0 = połowa rdzeni) i ograniczona kolejka; po jej zapełnieniu odrzucamy
+    public static ThreadPoolExecutor hashingPool(int threads, int queueCapacity) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            throw new HashingOverloadedException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Kolejka puli jest pełna – klient może spróbować ponownie. @ResponseStatus działa tylko w MVC (np. zakładanie
+    // konta); przy logowaniu HTTP Basic 503 wystawia HashingOverloadedEntryPoint
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class HashingOverloadedException extends RuntimeException {
+        public HashingOverloadedException(Throwable cause) {
+            super("Password hashing queue is full", cause);
+        }
+    }
+}
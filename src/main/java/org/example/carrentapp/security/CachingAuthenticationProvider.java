@@ -0,0 +1,54 @@
+package org.example.carrentapp.security;
+
+import org.example.carrentapp.security.BoundedPasswordEncoder.HashingOverloadedException;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+// Przed właściwym providerem (DAO + BCrypt) sprawdza AuthenticationCache; zapamiętuje tylko sukcesy,
+// a trafienie zwraca nowy token zbudowany z migawki, nie obiekt wcześniejszego żądania.
+// Pełną kolejkę hashowania zamienia na wyjątek uwierzytelnienia – inaczej wyszedłby z filtra jako 500,
+// a tak trafia do HashingOverloadedEntryPoint (503).
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache cache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        try {
+            return authenticateCached(authentication);
+        } catch (HashingOverloadedException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
+    }
+
+    private Authentication authenticateCached(Authentication authentication) {
+        if (!(authentication.getCredentials() instanceof CharSequence password)) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        Authentication cached = cache.get(username, password);
+        if (cached != null) {
+            return cached;
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(username, password, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication)
+                && delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.carrentapp.security;
+
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.repository.UserRepository;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+
+/**
+ * Konta wyłącznie z tabel users / user_roles / roles (jedno zapytanie z join fetch ról),
+ * więc każde konto można wyłączyć lub zmienić mu hasło przez UserService.
+ * Pierwszego administratora na pustej bazie zakłada {@link BootstrapAdmin}.
+ * <p>
+ * Jako {@link UserDetailsPasswordService} zapisuje hash przeliczony po udanym logowaniu
+ * (stary format lub za niski koszt).
+ */
+public class DatabaseUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final UserRepository userRepo;
+    private final UserCache userCache;
+
+    public DatabaseUserDetailsService(UserRepository userRepo, UserCache userCache) {
+        this.userRepo = userRepo;
+        this.userCache = userCache;
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userRepo.findWithRolesByUsername(username)
+                .map(DatabaseUserDetailsService::toUserDetails)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // konto usunięte w międzyczasie – nie ma czego zapisać
+        if (userRepo.updatePasswordByUsername(user.getUsername(), newPassword) == 0) {
+            return user;
+        }
+        // w cache jest konto ze starym hashem – bez tego każde logowanie przeliczałoby go od nowa
+        userCache.removeUserFromCache(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    static UserDetails toUserDetails(org.example.carrentapp.entity.User user) {
+        return User.withUsername(user.getUsername())
+                .password(user.getPassword())
+                .authorities(authorities(user))
+                .build();
+    }
+
+    // Nazwa roli "ADMIN" lub "ROLE_ADMIN" daje uprawnienie ROLE_ADMIN (hasRole("ADMIN"))
+    private static List<GrantedAuthority> authorities(org.example.carrentapp.entity.User user) {
+        return user.getRoles().stream()
+                .map(Role::getName)
+                .map(name -> name.startsWith(ROLE_PREFIX) ? name : ROLE_PREFIX + name)
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+}
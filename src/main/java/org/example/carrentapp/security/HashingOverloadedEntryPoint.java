@@ -0,0 +1,49 @@
+package org.example.carrentapp.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.carrentapp.security.BoundedPasswordEncoder.HashingOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+
+import java.io.IOException;
+
+/**
+ * Logowanie HTTP Basic odbywa się w filtrze, poza Spring MVC, więc {@code @ResponseStatus}
+ * na {@link HashingOverloadedException} nic tam nie daje. Pełna kolejka hashowania dochodzi tu
+ * owinięta w wyjątek uwierzytelnienia i kończy się 503 z {@code Retry-After};
+ * każdy inny błąd obsługuje dotychczasowy punkt wejścia (401 z {@code WWW-Authenticate}).
+ */
+public class HashingOverloadedEntryPoint implements AuthenticationEntryPoint {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AuthenticationEntryPoint delegate;
+
+    public HashingOverloadedEntryPoint(AuthenticationEntryPoint delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response,
+                         AuthenticationException authException) throws IOException, ServletException {
+        if (overloaded(authException)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+            return;
+        }
+        delegate.commence(request, response, authException);
+    }
+
+    private static boolean overloaded(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HashingOverloadedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
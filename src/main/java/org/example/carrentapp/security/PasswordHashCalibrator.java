@@ -0,0 +1,67 @@
+package org.example.carrentapp.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Dobiera koszt hashowania przy starcie aplikacji: mierzy jeden hash przy koszcie minimalnym
+ * i skaluje go tak, by hash mieścił się w budżecie czasu na tej maszynie.
+ * <p>
+ * Koszt "wykładniczy" (BCrypt: log2 rund) rośnie o 1 na każde podwojenie budżetu,
+ * "liniowy" (iteracje PBKDF2 / Argon2) proporcjonalnie do budżetu. Nigdy nie schodzimy
+ * poniżej minimum z konfiguracji.
+ */
+public final class PasswordHashCalibrator {
+
+    private static final String SAMPLE = "calibration-Passw0rd!";
+    private static final int SAMPLES = 3;
+
+    private PasswordHashCalibrator() {
+    }
+
+    public static int exponentialCost(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+                                      Duration budget) {
+        if (budget.isZero()) {
+            return minCost;
+        }
+        return exponentialCost(minCost, maxCost, budget.toNanos(), measure(encoderForCost.apply(minCost)));
+    }
+
+    public static int linearCost(IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost,
+                                 Duration budget) {
+        if (budget.isZero()) {
+            return minCost;
+        }
+        return linearCost(minCost, maxCost, budget.toNanos(), measure(encoderForCost.apply(minCost)));
+    }
+
+    // Każdy +1 podwaja czas, więc bierzemy całkowitą część log2(budżet / czas przy minimum)
+    public static int exponentialCost(int minCost, int maxCost, long budgetNanos, long nanosAtMin) {
+        int cost = minCost;
+        long nanos = Math.max(1, nanosAtMin);
+        while (cost < maxCost && nanos * 2 <= budgetNanos) {
+            nanos *= 2;
+            cost++;
+        }
+        return cost;
+    }
+
+    public static int linearCost(int minCost, int maxCost, long budgetNanos, long nanosAtMin) {
+        long scaled = (long) ((double) minCost * budgetNanos / Math.max(1, nanosAtMin));
+        return (int) Math.max(minCost, Math.min(maxCost, scaled));
+    }
+
+    // Najkrótszy z kilku pomiarów (pierwszy hash rozgrzewa JIT i nie jest liczony)
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -1,46 +1,63 @@
 package org.example.carrentapp.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.example.carrentapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.core.userdetails.*;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 
+import java.util.concurrent.ExecutorService;
+
 @Configuration
 public class SecurityConfig {
 
+    // Hashowanie na własnej puli wątków; metryka carrentapp.password mierzy sam hash, bez czekania w kolejce
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Primary
+    public PasswordEncoder passwordEncoder(DelegatingPasswordEncoder hashing, MeterRegistry meterRegistry,
+                                           @Value("${carrentapp.security.password.hashing-threads:0}") int threads,
+                                           @Value("${carrentapp.security.password.queue-capacity:500}") int queueCapacity) {
+        ExecutorService pool = ExecutorServiceMetrics.monitor(meterRegistry,
+                BoundedPasswordEncoder.hashingPool(threads, queueCapacity), "passwordHashing");
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(hashing, meterRegistry), pool);
     }
 
+    // Użytkownicy wyłącznie z bazy (users + roles)
     @Bean
-    public InMemoryUserDetailsManager userDetailsService(PasswordEncoder pw) {
-        UserDetails user = User.builder()
-                .username("user")
-                .password(pw.encode("password"))
-                .roles("USER")
-                .build();
-
-        UserDetails admin = User.builder()
-                .username("admin")
-                .password(pw.encode("password"))
-                .roles("ADMIN")
-                .build();
+    public DatabaseUserDetailsService userDetailsService(UserRepository userRepo, UserDetailsCache userCache) {
+        return new DatabaseUserDetailsService(userRepo, userCache);
+    }
 
-        return new InMemoryUserDetailsManager(user, admin);
+    // BCrypt liczony raz na TTL cache, a nie przy każdym żądaniu HTTP Basic.
+    // Po udanym logowaniu hash w starym formacie lub o za niskim koszcie jest przeliczany i zapisywany.
+    @Bean
+    public AuthenticationProvider authenticationProvider(DatabaseUserDetailsService userDetailsService,
+                                                         PasswordEncoder pw,
+                                                         AuthenticationCache cache,
+                                                         UserDetailsCache userCache) {
+        DaoAuthenticationProvider dao = new DaoAuthenticationProvider(pw);
+        dao.setUserDetailsService(userDetailsService);
+        dao.setUserCache(userCache);
+        dao.setUserDetailsPasswordService(userDetailsService);
+        return new CachingAuthenticationProvider(dao, cache);
     }
 
     @Bean
@@ -50,6 +67,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Swagger bez autoryzacji
                         .requestMatchers(HttpMethod.GET, "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Actuator: health dla wszystkich, metryki (Prometheus) tylko dla admina
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Tylko admin może zarządzać rolami i użytkownikami
                         .requestMatchers("/api/roles/**").hasRole("ADMIN")
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
@@ -64,10 +84,16 @@ public class SecurityConfig {
                         // Reszta endpointów — tylko zalogowani
                         .anyRequest().authenticated()
                 )
-                .httpBasic(Customizer.withDefaults());
+                // Brak/błędne dane: 401 jak dotąd; pełna kolejka hashowania: 503
+                .httpBasic(basic -> basic.authenticationEntryPoint(basicEntryPoint()));
         return http.build();
     }
 
+    private static AuthenticationEntryPoint basicEntryPoint() {
+        BasicAuthenticationEntryPoint basic = new BasicAuthenticationEntryPoint();
+        basic.setRealmName("Realm");
+        return new HashingOverloadedEntryPoint(basic);
+    }
 
     @Bean
     public OpenAPI openApi() {
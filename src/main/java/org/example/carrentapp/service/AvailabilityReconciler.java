@@ -0,0 +1,138 @@
+package org.example.carrentapp.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.ReconcilerWatermark;
+import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.ReconcilerWatermarkRepository;
+import org.example.carrentapp.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Uzgadnia Car.available, gdy rezerwacje się zaczynają i kończą.
+ * <p>
+ * Auto jest niedostępne, dopóki trwa jego wynajem – rezerwacja obejmująca dzisiejszy dzień albo ACTIVE po terminie.
+ * Zadanie ma dwa przebiegi: rezerwacje rozpoczęte (znacznik (start_date, id)) zabierają auta z puli, a zakończone
+ * (znacznik (end_date, id)) je zwalniają. Każdy czyta tylko wiersze za swoim znacznikiem w tabeli
+ * reconciler_watermarks – paczkami po chunk-size, każda paczka w osobnej, krótkiej transakcji.
+ * Auta z paczki są blokowane (SELECT ... FOR UPDATE), więc równoległa rezerwacja nie zostanie nadpisana.
+ * <p>
+ * Nowe rezerwacje nie zaczynają się w przeszłości, a zmiany terminów uzgadnia od razu ReservationService,
+ * więc za znacznikiem nie pojawiają się już wiersze, które zmieniałyby flagę auta.
+ */
+@Component
+public class AvailabilityReconciler {
+
+    static final String WATERMARK = "car-availability";
+    static final String START_WATERMARK = "car-availability-start";
+    // Początek znacznika przy pierwszym uruchomieniu (jednorazowo przechodzi całą historię)
+    static final LocalDate ORIGIN = LocalDate.EPOCH;
+
+    record Chunk(int reservations, int changedCars) {
+    }
+
+    // Przebieg: nazwa znacznika, zapytanie o kolejne rezerwacje i data, po której idzie keyset
+    private record Pass(String watermark, Finder finder, Function<Reservation, LocalDate> keyDate) {
+    }
+
+    @FunctionalInterface
+    private interface Finder {
+        List<Reservation> find(LocalDate afterDate, Long afterId, LocalDate today, Limit limit);
+    }
+
+    private final ReservationRepository reservationRepo;
+    private final CarRepository carRepo;
+    private final ReconcilerWatermarkRepository watermarkRepo;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final Clock clock;
+    private final Pass started;
+    private final Pass ended;
+
+    @Autowired
+    public AvailabilityReconciler(ReservationRepository reservationRepo,
+                                  CarRepository carRepo,
+                                  ReconcilerWatermarkRepository watermarkRepo,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${carrentapp.availability.reconcile.chunk-size:500}") int chunkSize) {
+        this(reservationRepo, carRepo, watermarkRepo, transactionManager, chunkSize, Clock.systemDefaultZone());
+    }
+
+    public AvailabilityReconciler(ReservationRepository reservationRepo,
+                                  CarRepository carRepo,
+                                  ReconcilerWatermarkRepository watermarkRepo,
+                                  PlatformTransactionManager transactionManager,
+                                  int chunkSize,
+                                  Clock clock) {
+        this.reservationRepo = reservationRepo;
+        this.carRepo = carRepo;
+        this.watermarkRepo = watermarkRepo;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+        this.started = new Pass(START_WATERMARK, reservationRepo::findStartedAfter, Reservation::getStartDate);
+        this.ended = new Pass(WATERMARK, reservationRepo::findEndedAfter, Reservation::getEndDate);
+    }
+
+    // Zwraca liczbę aut, którym zmieniła się dostępność (najpierw rozpoczęte wynajmy, potem zakończone)
+    @Timed("carrentapp.availability.reconcile")
+    @Scheduled(initialDelayString = "${carrentapp.availability.reconcile.interval:PT5M}",
+            fixedDelayString = "${carrentapp.availability.reconcile.interval:PT5M}")
+    public int reconcile() {
+        LocalDate today = LocalDate.now(clock);
+        return run(started, today) + run(ended, today);
+    }
+
+    private int run(Pass pass, LocalDate today) {
+        int changed = 0;
+        Chunk chunk;
+        do {
+            chunk = tx.execute(status -> reconcileChunk(pass, today));
+            changed += chunk.changedCars();
+        } while (chunk.reservations() == chunkSize);
+        return changed;
+    }
+
+    private Chunk reconcileChunk(Pass pass, LocalDate today) {
+        ReconcilerWatermark watermark = watermarkRepo.findById(pass.watermark())
+                .orElseGet(() -> new ReconcilerWatermark(pass.watermark(), ORIGIN, 0L));
+        List<Reservation> reservations = pass.finder().find(
+                watermark.getLastDate(), watermark.getLastId(), today, Limit.of(chunkSize));
+        if (reservations.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+
+        Set<Long> carIds = new HashSet<>();
+        reservations.forEach(r -> carIds.add(r.getCar().getId()));
+        List<Car> cars = carRepo.findAllByIdForUpdate(carIds);
+        Set<Long> blocked = new HashSet<>(reservationRepo.findBlockedCarIds(carIds, today));
+        int changed = 0;
+        for (Car car : cars) {
+            boolean free = !blocked.contains(car.getId());
+            if (car.getAvailable() != free) {
+                car.setAvailable(free);
+                changed++;
+            }
+        }
+
+        Reservation last = reservations.get(reservations.size() - 1);
+        watermark.setLastDate(pass.keyDate().apply(last));
+        watermark.setLastId(last.getId());
+        watermarkRepo.save(watermark);
+        return new Chunk(reservations.size(), changed);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.carrentapp.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.repository.CarRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pobiera auto do rezerwacji z blokadą wybraną w konfiguracji
+ * (carrentapp.reservations.locking):
+ * <ul>
+ *     <li>OPTIMISTIC – podbicie wersji auta przy commicie; równoległa rezerwacja dostaje
+ *     konflikt wersji i jest ponawiana (ReservationService, @Retryable); po transakcji auto wypada
+ *     z cache drugiego poziomu, bo podbicie wersji go nie aktualizuje,</li>
+ *     <li>PESSIMISTIC – SELECT ... FOR UPDATE; rezerwacje tego samego auta czekają na siebie.</li>
+ * </ul>
+ * Wymaga aktywnej transakcji.
+ */
+@Component
+public class CarLocker {
+
+    public enum Mode { OPTIMISTIC, PESSIMISTIC }
+
+    private final CarRepository carRepo;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Mode mode;
+
+    public CarLocker(CarRepository carRepo,
+                     EntityManagerFactory entityManagerFactory,
+                     @Value("${carrentapp.reservations.locking:OPTIMISTIC}") Mode mode) {
+        this.carRepo = carRepo;
+        this.entityManagerFactory = entityManagerFactory;
+        this.mode = mode;
+    }
+
+    public Optional<Car> findAndLock(Long carId) {
+        if (mode == Mode.PESSIMISTIC) {
+            return carRepo.findByIdForUpdate(carId);
+        }
+        evictAfterTransaction(List.of(carId));
+        return carRepo.findByIdForBooking(carId);
+    }
+
+    // Blokuje wiele aut jednym zapytaniem; brakujących id po prostu nie ma w wyniku
+    public List<Car> findAndLockAll(Collection<Long> carIds) {
+        if (mode == Mode.PESSIMISTIC) {
+            return carRepo.findAllByIdForUpdate(carIds);
+        }
+        evictAfterTransaction(carIds);
+        return carRepo.findAllByIdForBooking(carIds);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Wersja podbita przy commicie nie trafia do cache "cars"; bez tego następny zapis auta
+    // wczytanego z cache (np. zwolnienie po anulowaniu rezerwacji) kończy się konfliktem wersji
+    private void evictAfterTransaction(Collection<Long> carIds) {
+        List<Long> ids = List.copyOf(carIds);
+        Runnable evict = () -> ids.forEach(id -> entityManagerFactory.getCache().evict(Car.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+}
@@ -1,38 +1,88 @@
 package org.example.carrentapp.service;
 
+import org.example.carrentapp.available.AvailabilityRules;
+import org.example.carrentapp.available.CarAvailabilityIndex;
+import org.example.carrentapp.dto.CursorPageDto;
 import org.example.carrentapp.entity.Car;
-import org.example.carrentapp.available.IfAvailable; // Importujemy interfejs IfAvailable
+import org.example.carrentapp.entity.CarCategory;
 import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.search.CarAutocomplete;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
+import static org.example.carrentapp.repository.CarSpecifications.*;
+
+@Timed(value = "carrentapp.service", histogram = true)
+@Counted(value = "carrentapp.service.failures", recordFailuresOnly = true)
 @Service
 public class CarService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 200;
+    // Ile id wolnych aut idzie do jednego zapytania "id in (...)"
+    static final int FREE_ID_CHUNK = 1000;
+
     private final CarRepository repo;
+    private final CarAvailabilityIndex availabilityIndex;
+    private final AvailabilityRules availabilityRules;
+    private final CarAutocomplete autocomplete;
 
-    public CarService(CarRepository repo) {
+    public CarService(CarRepository repo, CarAvailabilityIndex availabilityIndex, AvailabilityRules availabilityRules,
+                      CarAutocomplete autocomplete) {
         this.repo = repo;
+        this.availabilityIndex = availabilityIndex;
+        this.availabilityRules = availabilityRules;
+        this.autocomplete = autocomplete;
     }
 
-    // Dodajemy metodę, która zwróci wszystkie samochody
+    // Po starcie aplikacji ładujemy same nazwy aut do indeksu autouzupełniania
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAutocomplete() {
+        autocomplete.rebuild(repo.findAllNames());
+    }
+
+    // Pierwsze MAX_PAGE_SIZE samochodów po id – dalej tylko przez getCarsPage albo eksport,
+    // bo findAll() wczytywał do pamięci całą tabelę
     public List<Car> getAllCars() {
-        return repo.findAll(); // Zwracamy wszystkie samochody z repozytorium
+        return getCarsPage(null, null, null, null, null, null, MAX_PAGE_SIZE).getItems();
+    }
+
+    // Stronicowanie "keyset": kolejna strona zaczyna się za ostatnim id poprzedniej
+    public CursorPageDto<Car> getCarsPage(Long afterId, CarCategory category, String make, String model,
+                                          Integer year, Boolean available, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // "dostępne" według reguł kategorii, a nie samej flagi available
+        Specification<Car> rule = category == null ? availabilityRules.available() : availabilityRules.available(category);
+        Specification<Car> availability = available == null ? null
+                : available ? rule : Specification.not(rule);
+        Specification<Car> spec = Specification.allOf(idGreaterThan(afterId), inCategory(category),
+                hasMake(make), hasModel(model), hasYear(year), availability);
+        // pobieramy jeden rekord więcej, żeby wiedzieć, czy jest następna strona
+        return page(repo.findBy(spec, q -> q.sortBy(Sort.by("id")).limit(limit + 1).all()), limit);
     }
 
     // Metoda zwracająca dostępne samochody
     public List<Car> getAvailableCars() {
-        List<Car> allCars = getAllCars(); // Korzystamy z getAllCars()
-        // Filtrowanie samochodów na podstawie dostępności
-        return allCars.stream()
-                .filter(car -> car instanceof IfAvailable && ((IfAvailable) car).getAvailable()) // Polimorfizm: sprawdzamy dostępność przez interfejs
-                .collect(Collectors.toList());
+        return findAvailableCars();
     }
 
     // Tworzenie nowego samochodu
     public Car createCar(Car car) {
-        return repo.save(car);
+        Car saved = repo.save(car);
+        availabilityIndex.registerCar(saved.getId());
+        autocomplete.register(saved.getId(), saved.getMake(), saved.getModel());
+        return saved;
     }
 
     // Pobieranie samochodu po ID
@@ -47,7 +97,9 @@ public class CarService {
                     existing.setModel(payload.getModel());
                     existing.setYear(payload.getYear());
                     existing.setAvailable(payload.getAvailable()); // Zmieniamy na getAvailable()
-                    return repo.save(existing);
+                    Car saved = repo.save(existing);
+                    autocomplete.register(saved.getId(), saved.getMake(), saved.getModel());
+                    return saved;
                 })
                 .orElse(null);
     }
@@ -56,15 +108,76 @@ public class CarService {
     public boolean deleteCar(Long id) {
         if (repo.existsById(id)) {
             repo.deleteById(id);
+            availabilityIndex.unregisterCar(id);
+            autocomplete.unregister(id);
             return true;
         }
         return false;
     }
 
+    // Wyszukiwanie po marce i modelu: każde słowo zapytania jako początek słowa w nazwie albo całość jako fragment
+    public List<Car> searchCars(String query, int limit) {
+        List<String> words = query == null ? List.of()
+                : Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                        .filter(w -> !w.isEmpty())
+                        .toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        String tsQuery = words.stream().map(w -> w + ":*").collect(Collectors.joining(" & "));
+        String pattern = "%" + query.strip().toLowerCase(Locale.ROOT).replaceAll("([\\\\%_])", "\\\\$1") + "%";
+        return repo.search(tsQuery, pattern, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    // Podpowiedzi z pamięci – bez zapytania do bazy, więc można je wołać przy każdym naciśnięciu klawisza
+    public List<String> autocomplete(String prefix, int limit) {
+        return autocomplete.suggest(prefix, limit);
+    }
+
+    // Reguły kategorii liczone w SQL; IfAvailable tylko sprawdza zwrócone wiersze
     public List<Car> findAvailableCars() {
-        return repo.findAll().stream()
-                .filter(car -> car != null && ((IfAvailable) car).getAvailable())
-                .collect(Collectors.toList());
+        return findAvailableCars((CarCategory) null);
+    }
+
+    // To samo w jednej kategorii – zapytanie czyta tylko jej fragment indeksu (category, available, id)
+    public List<Car> findAvailableCars(CarCategory category) {
+        Specification<Car> rule = category == null ? availabilityRules.available() : availabilityRules.available(category);
+        return availabilityRules.verify(repo.findAll(rule, Sort.by("id")));
+    }
+
+    // Auta bez żadnej rezerwacji w przedziale [start, end], stronami po id jak getCarsPage.
+    // Kalendarz zajętości daje same id wolnych aut; z bazy czytamy tylko jedną stronę, a id przekazujemy
+    // paczkami po FREE_ID_CHUNK – cała wolna flota (100k+) nie zmieściłaby się w limicie parametrów PostgreSQL.
+    public CursorPageDto<Car> findAvailableCars(LocalDate start, LocalDate end, CarCategory category,
+                                                Long afterId, int size) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new IllegalArgumentException("Invalid date range");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long after = afterId == null ? Long.MIN_VALUE : afterId;
+        long[] free = availabilityIndex.freeCars(start, end).stream()
+                .mapToLong(Long::longValue)
+                .filter(id -> id > after)
+                .sorted()
+                .toArray();
+        List<Car> rows = new ArrayList<>(limit + 1);
+        // bez kategorii wystarcza pierwsza paczka; z kategorią czytamy kolejne, aż strona się zapełni
+        for (int from = 0; from < free.length && rows.size() <= limit; from += FREE_ID_CHUNK) {
+            List<Long> chunk = Arrays.stream(free, from, Math.min(free.length, from + FREE_ID_CHUNK)).boxed().toList();
+            int missing = limit + 1 - rows.size();
+            rows.addAll(repo.findBy(Specification.allOf(idIn(chunk), inCategory(category)),
+                    q -> q.sortBy(Sort.by("id")).limit(missing).all()));
+        }
+        return page(rows, limit);
+    }
+
+    // rows posortowane po id, najwyżej limit + 1 – nadmiarowy wiersz oznacza, że jest następna strona
+    private static CursorPageDto<Car> page(List<Car> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<Car> page = rows.subList(0, limit);
+        return new CursorPageDto<>(List.copyOf(page), page.get(limit - 1).getId());
     }
 
 }
@@ -0,0 +1,120 @@
+package org.example.carrentapp.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.ReservationRepository;
+import org.example.carrentapp.repository.UserRepository;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Eksport dużych list bez ładowania całej tabeli: wiersze idą prosto z kursora JDBC do odpowiedzi
+@Timed(value = "carrentapp.service", histogram = true)
+@Counted(value = "carrentapp.service.failures", recordFailuresOnly = true)
+@Service
+public class ExportService {
+
+    // Co tyle wierszy czyścimy kontekst persystencji, żeby pamięć nie rosła z rozmiarem tabeli
+    static final int CLEAR_EVERY = Integer.parseInt(ReservationRepository.EXPORT_FETCH_SIZE);
+
+    public enum Format { JSON_ARRAY, NDJSON }
+
+    private final CarRepository carRepo;
+    private final ReservationRepository reservationRepo;
+    private final UserRepository userRepo;
+    private final EntityManager entityManager;
+    private final JsonFactory jsonFactory;
+    // Serializery wyszukane raz dla typu wiersza; bez flush po każdym wierszu (flush co CLEAR_EVERY)
+    private final ObjectWriter carWriter;
+    private final ObjectWriter reservationWriter;
+    private final ObjectWriter userWriter;
+
+    public ExportService(CarRepository carRepo,
+                         ReservationRepository reservationRepo,
+                         UserRepository userRepo,
+                         EntityManager entityManager,
+                         ObjectMapper mapper) {
+        this.carRepo = carRepo;
+        this.reservationRepo = reservationRepo;
+        this.userRepo = userRepo;
+        this.entityManager = entityManager;
+        this.jsonFactory = mapper.getFactory();
+        this.carWriter = rowWriter(mapper, Car.class);
+        this.reservationWriter = rowWriter(mapper, Reservation.class);
+        this.userWriter = rowWriter(mapper, User.class);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportCars(OutputStream out, Format format) {
+        try (Stream<?> rows = carRepo.streamAllBy()) {
+            write(rows, carWriter, out, format);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportReservations(OutputStream out, Format format) {
+        try (Stream<?> rows = reservationRepo.streamAllBy()) {
+            write(rows, reservationWriter, out, format);
+        }
+    }
+
+    // Użytkownicy paczkami po CLEAR_EVERY: dwa zapytania na paczkę (id, konta z rolami) zamiast zapytania o role na wiersz
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out, Format format) {
+        Stream<User> rows = Stream.iterate(userRepo.findIdsAfter(0L, Limit.of(CLEAR_EVERY)),
+                        ids -> !ids.isEmpty(),
+                        ids -> ids.size() < CLEAR_EVERY ? List.of()
+                                : userRepo.findIdsAfter(ids.get(ids.size() - 1), Limit.of(CLEAR_EVERY)))
+                .flatMap(ids -> userRepo.findWithRolesByIdIn(ids).stream());
+        write(rows, userWriter, out, format);
+    }
+
+    private void write(Stream<?> rows, ObjectWriter writer, OutputStream out, Format format) {
+        try (JsonGenerator gen = jsonFactory.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // NDJSON: separator wierszy dopisujemy sami, bez domyślnej spacji między dokumentami
+            gen.setRootValueSeparator(null);
+            if (format == Format.JSON_ARRAY) {
+                gen.writeStartArray();
+            }
+            int written = 0;
+            Iterator<?> it = rows.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(gen, it.next());
+                if (format == Format.NDJSON) {
+                    gen.writeRaw('\n');
+                }
+                if (++written % CLEAR_EVERY == 0) {
+                    gen.flush();
+                    entityManager.clear();
+                }
+            }
+            if (format == Format.JSON_ARRAY) {
+                gen.writeEndArray();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ObjectWriter rowWriter(ObjectMapper mapper, Class<?> type) {
+        return mapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
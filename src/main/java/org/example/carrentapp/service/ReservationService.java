@@ -1,56 +1,109 @@
 package org.example.carrentapp.service;
 
+import org.example.carrentapp.available.CarAvailabilityIndex;
 import org.example.carrentapp.available.IfAvailable;
 import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.dto.ReservationViewDto;
 import org.example.carrentapp.entity.Car;
 import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.ReservationStatus;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.CarRepository;
 import org.example.carrentapp.repository.ReservationRepository;
 import org.example.carrentapp.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Timed(value = "carrentapp.service", histogram = true)
+@Counted(value = "carrentapp.service.failures", recordFailuresOnly = true)
 @Service
 public class ReservationService {
 
     private final ReservationRepository reservationRepo;
     private final CarRepository carRepo;
     private final UserRepository userRepo;
+    private final CarAvailabilityIndex availabilityIndex;
+    private final CarLocker carLocker;
 
     public ReservationService(ReservationRepository reservationRepo,
                               CarRepository carRepo,
-                              UserRepository userRepo) {
+                              UserRepository userRepo,
+                              CarAvailabilityIndex availabilityIndex,
+                              CarLocker carLocker) {
         this.reservationRepo = reservationRepo;
         this.carRepo = carRepo;
         this.userRepo = userRepo;
+        this.availabilityIndex = availabilityIndex;
+        this.carLocker = carLocker;
     }
 
-    public List<Reservation> getAllReservations() {
-        return reservationRepo.findAll();
+    // Po starcie aplikacji ładujemy aktywne rezerwacje do indeksu dostępności (historia auta nie blokuje)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAvailabilityIndex() {
+        availabilityIndex.rebuild(carRepo.findAllIds(), reservationRepo.findAllActive().stream()
+                .map(r -> new CarAvailabilityIndex.Booking(
+                        r.getId(), r.getCar().getId(), r.getStartDate(), r.getEndDate()))
+                .toList());
     }
 
+    // Czy auto jest wolne w przedziale [start, end]
+    public boolean isCarFree(Long carId, LocalDate start, LocalDate end) {
+        validatePeriod(start, end);
+        return availabilityIndex.isFree(carId, start, end);
+    }
+
+    // Odczyty zwracają projekcję (jeden join), a nie encję z leniwymi auto/użytkownikiem
+    public List<ReservationViewDto> getAllReservations() {
+        return reservationRepo.findAllViews();
+    }
+
+    // Przy konflikcie współbieżnym (wersja auta, blokada) cała transakcja jest ponawiana
+    @Retryable(retryFor = ConcurrencyFailureException.class,
+            maxAttemptsExpression = "${carrentapp.reservations.max-attempts:3}",
+            backoff = @Backoff(delay = 20, multiplier = 2))
     @Transactional
     public Long createReservation(ReservationDto dto) {
-        // 1) Znajdź samochód
-        Car car = carRepo.findById(dto.getCarId())
+        // 1) Znajdź samochód i zablokuj go na czas rezerwacji
+        Car car = carLocker.findAndLock(dto.getCarId())
                 .orElseThrow(() -> new EntityNotFoundException("Car not found: " + dto.getCarId()));
 
-        // 2) Sprawdź, czy samochód jest dostępny
-        if (!car.getAvailable()) {
-            throw new IllegalStateException("Car is already reserved");
-        }
-
-        // 3) Znajdź użytkownika
+        // 2) Znajdź użytkownika
         User user = userRepo.findById(dto.getUserId())
                 .orElseThrow(() -> new EntityNotFoundException("User not found: " + dto.getUserId()));
 
-        // 4) Zarezerwuj auto
-        car.setAvailable(false);
-        carRepo.save(car); // Zapisujemy, że auto jest teraz niedostępne
+        // 3) Sprawdź, czy termin nie koliduje z inną rezerwacją tego auta – o rezerwacji decydują
+        // wyłącznie daty, a nie flaga available (auto wynajęte dziś można zarezerwować na przyszły tydzień)
+        validateNewBooking(dto.getStartDate(), dto.getEndDate());
+        // indeks odrzuca kolizje bez zapytania; pod blokadą auta rozstrzyga baza
+        if (!availabilityIndex.isFree(car.getId(), dto.getStartDate(), dto.getEndDate())
+                || reservationRepo.existsActiveOverlap(car.getId(), dto.getStartDate(), dto.getEndDate())) {
+            throw new IllegalStateException("Car is already reserved in this period");
+        }
+
+        // 4) Wynajem zaczynający się dziś zabiera auto z puli; przyszły termin blokuje tylko swoje daty
+        if (hasStarted(dto.getStartDate())) {
+            car.setAvailable(false);
+            carRepo.save(car);
+        }
 
         // 5) Stwórz rezerwację
         Reservation res = new Reservation();
@@ -59,33 +112,194 @@ public class ReservationService {
         res.setStartDate(dto.getStartDate());
         res.setEndDate(dto.getEndDate());
         Reservation saved = reservationRepo.save(res);
+        availabilityIndex.book(saved.getId(), car.getId(), saved.getStartDate(), saved.getEndDate());
 
         return saved.getId(); // Zwróć ID zapisanej rezerwacji
     }
 
+    // Rezerwacja wielu aut naraz (klienci firmowi): wszystko albo nic.
+    // Auta, użytkownicy i kolizje sprawdzane są zbiorczo, a inserty idą paczkami JDBC.
+    @Retryable(retryFor = ConcurrencyFailureException.class,
+            maxAttemptsExpression = "${carrentapp.reservations.max-attempts:3}",
+            backoff = @Backoff(delay = 20, multiplier = 2))
+    @Transactional
+    public List<Long> createReservations(List<ReservationDto> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("At least one reservation is required");
+        }
+        Map<Long, List<ReservationDto>> byCar = new HashMap<>();
+        Set<Long> userIds = new HashSet<>();
+        for (ReservationDto dto : dtos) {
+            validateNewBooking(dto.getStartDate(), dto.getEndDate());
+            byCar.computeIfAbsent(dto.getCarId(), id -> new ArrayList<>()).add(dto);
+            userIds.add(dto.getUserId());
+        }
+        // To samo auto może wystąpić w paczce kilka razy, byle jego terminy na siebie nie nachodziły
+        byCar.forEach(ReservationService::rejectOverlapsWithinBatch);
+        Set<Long> carIds = byCar.keySet();
+
+        // 1) Zablokuj wszystkie auta jednym zapytaniem
+        Map<Long, Car> cars = carLocker.findAndLockAll(carIds).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+        for (Long carId : carIds) {
+            if (!cars.containsKey(carId)) {
+                throw new EntityNotFoundException("Car not found: " + carId);
+            }
+        }
+
+        // 2) Wszyscy użytkownicy jednym zapytaniem
+        Map<Long, User> users = userRepo.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Long userId : userIds) {
+            if (!users.containsKey(userId)) {
+                throw new EntityNotFoundException("User not found: " + userId);
+            }
+        }
 
+        // 3) Kolizje: indeks, a potem jedno zapytanie o rezerwacje tych aut w łącznym oknie dat
+        LocalDate from = dtos.stream().map(ReservationDto::getStartDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = dtos.stream().map(ReservationDto::getEndDate).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<Reservation>> existing = reservationRepo
+                .findActiveOverlapsForCars(carIds, from, to).stream()
+                .collect(Collectors.groupingBy(r -> r.getCar().getId()));
+        for (ReservationDto dto : dtos) {
+            boolean overlaps = existing.getOrDefault(dto.getCarId(), List.of()).stream()
+                    .anyMatch(r -> !r.getStartDate().isAfter(dto.getEndDate())
+                            && !r.getEndDate().isBefore(dto.getStartDate()));
+            if (overlaps || !availabilityIndex.isFree(dto.getCarId(), dto.getStartDate(), dto.getEndDate())) {
+                throw new IllegalStateException("Car is already reserved in this period: " + dto.getCarId());
+            }
+        }
 
-    public Reservation getReservationById(Long id) {
-        return reservationRepo.findById(id).orElse(null);
+        // 4) Zarezerwuj auta i zapisz rezerwacje (id z sekwencji, więc Hibernate może batchować inserty)
+        List<Reservation> reservations = new ArrayList<>(dtos.size());
+        for (ReservationDto dto : dtos) {
+            Car car = cars.get(dto.getCarId());
+            if (hasStarted(dto.getStartDate())) {
+                car.setAvailable(false);
+            }
+            Reservation res = new Reservation();
+            res.setCar(car);
+            res.setUser(users.get(dto.getUserId()));
+            res.setStartDate(dto.getStartDate());
+            res.setEndDate(dto.getEndDate());
+            reservations.add(res);
+        }
+        List<Reservation> saved = reservationRepo.saveAll(reservations);
+        saved.forEach(r -> availabilityIndex.book(r.getId(), r.getCar().getId(), r.getStartDate(), r.getEndDate()));
+
+        return saved.stream().map(Reservation::getId).toList();
+    }
+
+    public ReservationViewDto getReservationById(Long id) {
+        return reservationRepo.findViewById(id).orElse(null);
     }
 
     @Transactional
     public Reservation updateReservation(Long id, ReservationDto dto) {
         return reservationRepo.findById(id)
                 .map(existing -> {
+                    if (!existing.getStatus().isActive()) {
+                        throw new IllegalStateException("Reservation is already " + existing.getStatus());
+                    }
+                    validatePeriod(dto.getStartDate(), dto.getEndDate());
+                    // trwający wynajem może zachować swój początek, ale termin nie może trafić w przeszłość
+                    LocalDate today = LocalDate.now();
+                    if (dto.getEndDate().isBefore(today)
+                            || (dto.getStartDate().isBefore(today) && !dto.getStartDate().equals(existing.getStartDate()))) {
+                        throw new IllegalArgumentException("Reservation period cannot be moved into the past");
+                    }
+                    Long carId = existing.getCar().getId();
+                    if (!availabilityIndex.isFree(carId, dto.getStartDate(), dto.getEndDate(), existing.getId())
+                            || reservationRepo.findActiveOverlaps(carId, dto.getStartDate(), dto.getEndDate()).stream()
+                            .anyMatch(r -> !r.getId().equals(existing.getId()))) {
+                        throw new IllegalStateException("Car is already reserved in this period");
+                    }
                     existing.setStartDate(dto.getStartDate());
                     existing.setEndDate(dto.getEndDate());
-                    return reservationRepo.save(existing);
+                    Reservation saved = reservationRepo.save(existing);
+                    availabilityIndex.book(saved.getId(), carId, saved.getStartDate(), saved.getEndDate());
+                    // początek przesunięty na dziś zabiera auto z puli, skrócony wynajem może je zwolnić
+                    syncCarAvailability(existing.getCar());
+                    return saved;
                 })
                 .orElse(null);
     }
 
+    // Zmiana statusu zgodnie z ReservationStatus.canTransitionTo; null, gdy rezerwacji nie ma.
+    // Anulowana lub zwrócona rezerwacja zostaje w bazie, ale przestaje blokować termin auta.
+    @Transactional
+    public ReservationViewDto changeStatus(Long id, ReservationStatus target) {
+        Reservation res = reservationRepo.findById(id).orElse(null);
+        if (res == null) {
+            return null;
+        }
+        if (!res.getStatus().canTransitionTo(target)) {
+            throw new IllegalStateException("Cannot change reservation status from " + res.getStatus() + " to " + target);
+        }
+        res.setStatus(target);
+        if (!target.isActive()) {
+            availabilityIndex.release(id);
+        }
+        // Wydanie auta (ACTIVE) blokuje je także przed terminem, zakończenie może je zwolnić; CONFIRMED niczego nie zmienia
+        if (target == ReservationStatus.ACTIVE || !target.isActive()) {
+            syncCarAvailability(res.getCar());
+        }
+        return reservationRepo.findViewById(id).orElseThrow();
+    }
+
     @Transactional
     public boolean deleteReservation(Long id) {
-        if (reservationRepo.existsById(id)) {
-            reservationRepo.deleteById(id);
-            return true;
+        return reservationRepo.findById(id)
+                .map(res -> {
+                    reservationRepo.delete(res);
+                    availabilityIndex.release(id);
+                    syncCarAvailability(res.getCar());
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    // Car.available wprost z rezerwacji, które teraz blokują auto (zapytanie najpierw wypycha zmiany z sesji);
+    // to samo robi AvailabilityReconciler, gdy rezerwacje zaczynają się i kończą bez udziału użytkownika
+    private void syncCarAvailability(Car car) {
+        boolean free = reservationRepo.findBlockedCarIds(List.of(car.getId()), LocalDate.now()).isEmpty();
+        if (car.getAvailable() != free) {
+            car.setAvailable(free);
+        }
+    }
+
+    // Car.available znaczy "nie jest teraz wynajęte": zmienia je tylko rezerwacja, która już trwa
+    private static boolean hasStarted(LocalDate start) {
+        return !start.isAfter(LocalDate.now());
+    }
+
+    private static void rejectOverlapsWithinBatch(Long carId, List<ReservationDto> sameCar) {
+        sameCar.sort(Comparator.comparing(ReservationDto::getStartDate));
+        LocalDate lastEnd = null;
+        for (ReservationDto dto : sameCar) {
+            if (lastEnd != null && !dto.getStartDate().isAfter(lastEnd)) {
+                throw new IllegalArgumentException("Overlapping periods for the same car in the batch: " + carId);
+            }
+            lastEnd = lastEnd == null || dto.getEndDate().isAfter(lastEnd) ? dto.getEndDate() : lastEnd;
+        }
+    }
+
+    // Nowa rezerwacja nie może zaczynać się w przeszłości – minionego terminu nie uwzględniłby już
+    // AvailabilityReconciler (jego znaczniki są dalej), więc flaga auta zostałaby nieaktualna
+    private static void validateNewBooking(LocalDate start, LocalDate end) {
+        validatePeriod(start, end);
+        if (start.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Start date cannot be in the past");
+        }
+    }
+
+    private static void validatePeriod(LocalDate start, LocalDate end) {
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Start and end date are required");
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
         }
-        return false;
     }
 }
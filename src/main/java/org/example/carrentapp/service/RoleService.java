@@ -2,16 +2,26 @@ package org.example.carrentapp.service;
 
 import org.example.carrentapp.entity.Role;
 import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.example.carrentapp.security.UserDetailsCache;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 
+@Timed(value = "carrentapp.service", histogram = true)
+@Counted(value = "carrentapp.service.failures", recordFailuresOnly = true)
 @Service
 public class RoleService {
     private final RoleRepository repo;
+    private final AuthenticationCache authCache;
+    private final UserDetailsCache userCache;
 
-    public RoleService(RoleRepository repo) {
+    public RoleService(RoleRepository repo, AuthenticationCache authCache, UserDetailsCache userCache) {
         this.repo = repo;
+        this.authCache = authCache;
+        this.userCache = userCache;
     }
 
     public List<Role> getAllRoles() {
@@ -32,7 +42,9 @@ public class RoleService {
         return repo.findById(id)
                 .map(existing -> {
                     existing.setName(payload.getName());
-                    return repo.save(existing);
+                    Role saved = repo.save(existing);
+                    evictResolvedRoles();
+                    return saved;
                 })
                 .orElse(null);
     }
@@ -40,8 +52,15 @@ public class RoleService {
     public boolean deleteRole(Long id) {
         if (repo.existsById(id)) {
             repo.deleteById(id);
+            evictResolvedRoles();
             return true;
         }
         return false;
     }
-}
\ No newline at end of file
+
+    // Uprawnienia zalogowanych wynikają z nazw ról – po zmianie roli liczymy je od nowa
+    private void evictResolvedRoles() {
+        authCache.evictAll();
+        userCache.removeAll();
+    }
+}
@@ -1,57 +1,86 @@
 package org.example.carrentapp.service;
 
+import org.example.carrentapp.dto.UserSummaryDto;
 import org.example.carrentapp.entity.Role;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.RoleRepository;
 import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.example.carrentapp.security.UserDetailsCache;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Timed(value = "carrentapp.service", histogram = true)
+@Counted(value = "carrentapp.service.failures", recordFailuresOnly = true)
 @Service
 public class UserService {
+    private static final int HASH_WINDOW = 100;
+
     private final UserRepository repo;
     private final RoleRepository roleRepo;
     private final PasswordEncoder encoder;
+    private final AuthenticationCache authCache;
+    private final UserDetailsCache userCache;
 
-    public UserService(UserRepository repo, RoleRepository roleRepo, PasswordEncoder encoder) {
+    public UserService(UserRepository repo, RoleRepository roleRepo, PasswordEncoder encoder,
+                       AuthenticationCache authCache, UserDetailsCache userCache) {
         this.repo = repo;
         this.roleRepo = roleRepo;
         this.encoder = encoder;
+        this.authCache = authCache;
+        this.userCache = userCache;
     }
 
     public List<User> getAllUsers() {
         return repo.findAll();
     }
 
+    public List<UserSummaryDto> getUserSummaries() {
+        return repo.findAllSummaries();
+    }
+
     public User createUser(User user) {
-        if (user.getPassword() == null || user.getPassword().isBlank()) {
-            throw new IllegalArgumentException("Password cannot be null or blank");
-        }
-        // Ensure unique username & email
-        if (repo.findByUsername(user.getUsername()).isPresent()) {
-            throw new DuplicateKeyException("Username already exists");
-        }
-        if (repo.existsByEmail(user.getEmail())) {
-            throw new DuplicateKeyException("Email already exists");
-        }
+        requirePassword(user.getPassword());
+        ensureUnique(List.of(user));
+        resolveRoles(List.of(user));
         // Reset id and encode password
         user.setId(null);
         user.setPassword(encoder.encode(user.getPassword()));
+        return repo.save(user);
+    }
 
-        // Resolve and set existing roles
-        if (user.getRoles() != null && !user.getRoles().isEmpty()) {
-            Set<Role> managedRoles = user.getRoles().stream()
-                    .map(r -> roleRepo.findById(r.getId())
-                            .orElseThrow(() -> new IllegalArgumentException("Role not found: " + r.getId())))
-                    .collect(Collectors.toSet());
-            user.setRoles(managedRoles);
+    // Import wielu użytkowników (np. bazy klientów partnera): wszystko albo nic.
+    // Unikalność i role sprawdzane są zbiorczo, hasła hashowane równolegle, a inserty do users
+    // i user_roles idą paczkami JDBC. Transakcja obejmuje tylko zapis, nie hashowanie.
+    public List<Long> importUsers(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            throw new IllegalArgumentException("At least one user is required");
         }
-        return repo.save(user);
+        users.forEach(u -> requirePassword(u.getPassword()));
+        ensureUnique(users);
+        resolveRoles(users);
+
+        List<String> hashes = encodeAll(users.stream().map(User::getPassword).toList());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(null);
+            users.get(i).setPassword(hashes.get(i));
+        }
+        return repo.saveAll(users).stream().map(User::getId).toList();
     }
 
     public User getUserById(Long id) {
@@ -61,6 +90,7 @@ public class UserService {
     public User updateUser(Long id, User payload) {
         return repo.findById(id)
                 .map(existing -> {
+                    evictCredentials(existing.getUsername());
                     existing.setUsername(payload.getUsername());
                     existing.setEmail(payload.getEmail());
                     return repo.save(existing);
@@ -68,11 +98,114 @@ public class UserService {
                 .orElse(null);
     }
 
+    // Nowe hasło unieważnia zapamiętane uwierzytelnienia – stare hasło przestaje działać od razu
+    public boolean changePassword(Long id, String rawPassword) {
+        if (rawPassword == null || rawPassword.isBlank()) {
+            throw new IllegalArgumentException("Password cannot be null or blank");
+        }
+        return repo.findById(id)
+                .map(existing -> {
+                    existing.setPassword(encoder.encode(rawPassword));
+                    repo.save(existing);
+                    evictCredentials(existing.getUsername());
+                    return true;
+                })
+                .orElse(false);
+    }
+
     public boolean deleteUser(Long id) {
         if (repo.existsById(id)) {
+            repo.findById(id).ifPresent(u -> evictCredentials(u.getUsername()));
             repo.deleteById(id);
             return true;
         }
         return false;
     }
+
+    // Zapamiętane logowania i konto użytkownika przestają obowiązywać od razu
+    private void evictCredentials(String username) {
+        authCache.evict(username);
+        userCache.removeUserFromCache(username);
+    }
+
+    private static void requirePassword(String password) {
+        if (password == null || password.isBlank()) {
+            throw new IllegalArgumentException("Password cannot be null or blank");
+        }
+    }
+
+    // Nazwy i e-maile: bez powtórzeń w żądaniu i wolne w bazie (jedno zapytanie na całość)
+    private void ensureUnique(List<User> users) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (User u : users) {
+            if (!usernames.add(u.getUsername())) {
+                throw new IllegalArgumentException("Username appears more than once: " + u.getUsername());
+            }
+            if (!emails.add(u.getEmail())) {
+                throw new IllegalArgumentException("Email appears more than once: " + u.getEmail());
+            }
+        }
+        for (UserRepository.UserIdentity taken : repo.findIdentities(usernames, emails)) {
+            if (usernames.contains(taken.getUsername())) {
+                throw new DuplicateKeyException("Username already exists: " + taken.getUsername());
+            }
+            throw new DuplicateKeyException("Email already exists: " + taken.getEmail());
+        }
+    }
+
+    // Podmienia role z żądania (liczy się tylko id) na encje – jednym findAllById dla wszystkich
+    private void resolveRoles(List<User> users) {
+        Set<Long> roleIds = users.stream()
+                .filter(u -> u.getRoles() != null)
+                .flatMap(u -> u.getRoles().stream())
+                .map(Role::getId)
+                .collect(Collectors.toSet());
+        if (roleIds.isEmpty()) {
+            return;
+        }
+        if (roleIds.contains(null)) {
+            throw new IllegalArgumentException("Role id is required");
+        }
+        Map<Long, Role> managed = roleRepo.findAllById(roleIds).stream()
+                .collect(Collectors.toMap(Role::getId, Function.identity()));
+        for (User u : users) {
+            if (u.getRoles() == null || u.getRoles().isEmpty()) {
+                continue;
+            }
+            Set<Role> resolved = new HashSet<>();
+            for (Role r : u.getRoles()) {
+                Role role = managed.get(r.getId());
+                if (role == null) {
+                    throw new IllegalArgumentException("Role not found: " + r.getId());
+                }
+                resolved.add(role);
+            }
+            u.setRoles(resolved);
+        }
+    }
+
+    // Hashe paczki liczone równolegle (ile pozwala pula hashująca), w oknach mniejszych
+    // niż jej kolejka, żeby import nie wypychał logowań innych użytkowników
+    private List<String> encodeAll(List<String> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        try (ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < rawPasswords.size(); from += HASH_WINDOW) {
+                List<CompletableFuture<String>> window = rawPasswords
+                        .subList(from, Math.min(from + HASH_WINDOW, rawPasswords.size())).stream()
+                        .map(raw -> CompletableFuture.supplyAsync(() -> encoder.encode(raw), fanOut))
+                        .toList();
+                try {
+                    CompletableFuture.allOf(window.toArray(CompletableFuture[]::new)).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException re) {
+                        throw re;
+                    }
+                    throw e;
+                }
+                window.forEach(f -> encoded.add(f.join()));
+            }
+        }
+        return encoded;
+    }
 }
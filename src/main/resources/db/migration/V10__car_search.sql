@@ -0,0 +1,12 @@
+-- src/main/resources/db/migration/V10__car_search.sql
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Dokument pełnotekstowy marki i modelu; konfiguracja 'simple', bo to nazwy własne (bez stemmingu i stop-słów)
+ALTER TABLE cars ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(make, '') || ' ' || coalesce(model, ''))) STORED;
+CREATE INDEX cars_search_vector_idx ON cars USING gin (search_vector);
+
+-- Fragmenty słów (LIKE '%...%') przez trigramy; wyrażenie musi być identyczne z tym w CarRepository.search
+CREATE INDEX cars_make_model_trgm_idx ON cars
+    USING gin (lower(coalesce(make, '') || ' ' || coalesce(model, '')) gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- src/main/resources/db/migration/V11__reconciler_start_watermark.sql
+
+-- Drugi znacznik AvailabilityReconciler: kolejne rozpoczęte rezerwacje (keyset po start_date, id).
+-- Tylko stany aktywne – anulowana lub zwrócona rezerwacja nie zabiera auta z puli;
+-- warunek musi być identyczny z literałami w zapytaniach ReservationRepository.
+CREATE INDEX reservations_active_start_date_id_idx ON reservations (start_date, id)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'ACTIVE');
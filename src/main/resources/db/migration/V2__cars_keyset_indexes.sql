@@ -0,0 +1,7 @@
+-- src/main/resources/db/migration/V2__cars_keyset_indexes.sql
+
+-- Indeksy pod stronicowanie "keyset" listy aut (WHERE <filtr> AND id > :cursor ORDER BY id)
+CREATE INDEX cars_make_model_id_idx ON cars (make, model, id);
+CREATE INDEX cars_model_id_idx ON cars (model, id);
+CREATE INDEX cars_year_id_idx ON cars (year, id);
+CREATE INDEX cars_available_id_idx ON cars (available, id);
@@ -0,0 +1,45 @@
+-- src/main/resources/db/migration/V3__reservation_concurrency.sql
+
+-- Kolumny wersji dla blokowania optymistycznego
+ALTER TABLE cars ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE reservations ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Podwójne rezerwacje sprzed tej migracji (np. z wyprzedaży) przenosimy do osobnej tabeli, bo inaczej
+-- ograniczenie niżej nie dałoby się założyć. Z każdej grupy kolidujących terminów auta zostaje rezerwacja
+-- złożona najwcześniej (najniższe id); późniejsze trafiają do reservations_overlapping do ręcznego rozliczenia.
+CREATE TABLE reservations_overlapping (LIKE reservations);
+ALTER TABLE reservations_overlapping ADD COLUMN moved_at TIMESTAMP NOT NULL DEFAULT now();
+
+DO $$
+DECLARE
+    candidate RECORD;
+BEGIN
+    FOR candidate IN
+        SELECT DISTINCT later.id, later.car_id, later.start_date, later.end_date
+        FROM reservations later
+        JOIN reservations earlier
+            ON earlier.car_id = later.car_id
+            AND earlier.id < later.id
+            AND earlier.start_date <= later.end_date
+            AND earlier.end_date >= later.start_date
+        ORDER BY later.id
+    LOOP
+        -- kolidująca wcześniejsza rezerwacja mogła już zostać przeniesiona, więc sprawdzamy ponownie
+        IF EXISTS (SELECT 1 FROM reservations kept
+                   WHERE kept.car_id = candidate.car_id
+                     AND kept.id < candidate.id
+                     AND kept.start_date <= candidate.end_date
+                     AND kept.end_date >= candidate.start_date) THEN
+            INSERT INTO reservations_overlapping SELECT * FROM reservations WHERE id = candidate.id;
+            DELETE FROM reservations WHERE id = candidate.id;
+        END IF;
+    END LOOP;
+END $$;
+
+-- Ostatnia linia obrony przed podwójną rezerwacją: baza nie przyjmie dwóch rezerwacji
+-- tego samego auta z nakładającymi się datami (obie daty włącznie).
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservations
+    ADD CONSTRAINT reservations_car_period_excl
+    EXCLUDE USING gist (car_id WITH =, daterange(start_date, end_date, '[]') WITH &&);
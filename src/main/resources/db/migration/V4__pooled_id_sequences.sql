@@ -0,0 +1,7 @@
+-- src/main/resources/db/migration/V4__pooled_id_sequences.sql
+
+-- Car i Reservation pobierają id z sekwencji po 50 naraz (allocationSize = 50, optymalizator pooled),
+-- dzięki czemu Hibernate może wysyłać inserty paczkami JDBC. Kolumny zachowują DEFAULT nextval,
+-- więc ręczne INSERT-y dalej działają – zużywają po prostu całą pulę.
+ALTER SEQUENCE cars_id_seq INCREMENT BY 50;
+ALTER SEQUENCE reservations_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+-- src/main/resources/db/migration/V6__reservation_lookup_indexes.sql
+
+-- Rezerwacje użytkownika (findByUserId); przy okazji indeks pod klucz obcy user_id
+CREATE INDEX reservations_user_id_idx ON reservations (user_id);
+
+-- Kolizje terminów auta: car_id = ? AND start_date <= :end AND end_date >= :start.
+-- end_date przed start_date, bo warunek end_date >= :start odcina całą historię auta,
+-- a zostają tylko bieżące i przyszłe rezerwacje. Indeks obsługuje też klucz obcy car_id.
+-- Zapytania po daterange(...) && obsługuje już indeks GiST ograniczenia reservations_car_period_excl (V3).
+CREATE INDEX reservations_car_end_start_idx ON reservations (car_id, end_date, start_date);
+
+-- Wolne auta (findByAvailableTrue, strony z available = true): tylko mała część floty
+CREATE INDEX cars_available_true_idx ON cars (id) WHERE available;
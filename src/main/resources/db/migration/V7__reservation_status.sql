@@ -0,0 +1,27 @@
+-- src/main/resources/db/migration/V7__reservation_status.sql
+
+-- Dotychczasowe rezerwacje nie miały statusu, a blokowały auto – traktujemy je jako potwierdzone
+UPDATE reservations SET status = 'CONFIRMED' WHERE status IS NULL;
+
+ALTER TABLE reservations
+    ALTER COLUMN status SET DEFAULT 'PENDING',
+    ALTER COLUMN status SET NOT NULL,
+    ADD CONSTRAINT reservations_status_chk
+        CHECK (status IN ('PENDING', 'CONFIRMED', 'ACTIVE', 'RETURNED', 'CANCELLED'));
+
+-- Zakaz nakładania się dotyczy tylko rezerwacji aktywnych: po anulowaniu lub zwrocie
+-- termin można zarezerwować ponownie, a historia zostaje w tabeli
+ALTER TABLE reservations DROP CONSTRAINT reservations_car_period_excl;
+ALTER TABLE reservations
+    ADD CONSTRAINT reservations_car_period_excl
+    EXCLUDE USING gist (car_id WITH =, daterange(start_date, end_date, '[]') WITH &&)
+    WHERE (status IN ('PENDING', 'CONFIRMED', 'ACTIVE'));
+
+-- Sprawdzanie kolizji (V6) obejmuje odtąd tylko rezerwacje aktywne, więc indeks nie rośnie z historią.
+-- Warunek musi być identyczny z literałami w zapytaniach ReservationRepository.
+DROP INDEX reservations_car_end_start_idx;
+CREATE INDEX reservations_active_car_end_start_idx ON reservations (car_id, end_date, start_date)
+    WHERE status IN ('PENDING', 'CONFIRMED', 'ACTIVE');
+
+-- Klucz obcy car_id (kasowanie auta z historią rezerwacji) potrzebuje własnego, pełnego indeksu
+CREATE INDEX reservations_car_id_idx ON reservations (car_id);
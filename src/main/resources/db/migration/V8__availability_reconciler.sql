@@ -0,0 +1,11 @@
+-- src/main/resources/db/migration/V8__availability_reconciler.sql
+
+-- Znaczniki zadań przyrostowych: do której rezerwacji (end_date, id) zadanie już doszło
+CREATE TABLE reconciler_watermarks (
+    name      VARCHAR(64) PRIMARY KEY,
+    last_date DATE   NOT NULL,
+    last_id   BIGINT NOT NULL
+);
+
+-- Kolejne zakończone rezerwacje za znacznikiem (keyset po end_date, id) bez skanu całej historii
+CREATE INDEX reservations_end_date_id_idx ON reservations (end_date, id);
@@ -0,0 +1,8 @@
+-- src/main/resources/db/migration/V9__car_categories.sql
+
+-- Dyskryminator hierarchii Car / EconomyCar / LuxuryCar (SINGLE_TABLE); dotychczasowe auta są standardowe
+ALTER TABLE cars ADD COLUMN category VARCHAR(16) NOT NULL DEFAULT 'STANDARD';
+ALTER TABLE cars ADD CONSTRAINT cars_category_chk CHECK (category IN ('STANDARD', 'ECONOMY', 'LUXURY'));
+
+-- Wyszukiwanie w obrębie kategorii (dostępne auta, strony po id) czyta tylko jej fragment indeksu
+CREATE INDEX cars_category_available_id_idx ON cars (category, available, id);
@@ -0,0 +1,155 @@
+package org.example.carrentapp.integration;
+
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.ReservationStatus;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.ReconcilerWatermarkRepository;
+import org.example.carrentapp.repository.ReservationRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.service.AvailabilityReconciler;
+import org.example.carrentapp.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(properties = "carrentapp.availability.reconcile.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AvailabilityReconcilerIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test-db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url",     postgres::getJdbcUrl);
+        r.add("spring.datasource.username",postgres::getUsername);
+        r.add("spring.datasource.password",postgres::getPassword);
+    }
+
+    @Autowired private AvailabilityReconciler reconciler;
+    @Autowired private ReservationService reservationService;
+    @Autowired private CarRepository carRepo;
+    @Autowired private UserRepository userRepo;
+    @Autowired private ReservationRepository resRepo;
+    @Autowired private ReconcilerWatermarkRepository watermarkRepo;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        resRepo.deleteAll();
+        carRepo.deleteAll();
+        userRepo.deleteAll();
+        watermarkRepo.deleteAll();
+        user = new User();
+        user.setUsername("recon"); user.setPassword("p"); user.setEmail("recon@example.com");
+        user = userRepo.save(user);
+    }
+
+    @Test
+    void reconcile_releasesCarsWhoseReservationsEnded() {
+        LocalDate today = LocalDate.now();
+        Car returned = rentedCar("R");
+        Car stillOut = rentedCar("S");
+        Car overdue = rentedCar("O");
+        reservation(returned, today.minusDays(10), today.minusDays(6), ReservationStatus.RETURNED);
+        reservation(returned, today.minusDays(5), today.minusDays(1), ReservationStatus.CONFIRMED);
+        reservation(stillOut, today.minusDays(4), today.minusDays(2), ReservationStatus.RETURNED);
+        reservation(stillOut, today.minusDays(1), today.plusDays(2), ReservationStatus.ACTIVE);
+        // wynajem po terminie zwrotu, ale auta jeszcze nie oddano
+        reservation(overdue, today.minusDays(3), today.minusDays(1), ReservationStatus.ACTIVE);
+
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+
+        assertThat(carRepo.findById(returned.getId()).orElseThrow().getAvailable()).isTrue();
+        assertThat(carRepo.findById(stillOut.getId()).orElseThrow().getAvailable()).isFalse();
+        assertThat(carRepo.findById(overdue.getId()).orElseThrow().getAvailable()).isFalse();
+        assertThat(watermarkRepo.findById("car-availability")).get()
+                .satisfies(w -> assertThat(w.getLastDate()).isEqualTo(today.minusDays(1)));
+    }
+
+    @Test
+    void reconcile_secondRunOnlyReadsReservationsPastWatermark() {
+        LocalDate today = LocalDate.now();
+        Car car = rentedCar("W");
+        reservation(car, today.minusDays(3), today.minusDays(2), ReservationStatus.CONFIRMED);
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+
+        // ręcznie oznaczone jako niedostępne – stara rezerwacja jest już za znacznikiem, więc nic się nie zmienia
+        Car again = carRepo.findById(car.getId()).orElseThrow();
+        again.setAvailable(false);
+        carRepo.save(again);
+
+        assertThat(reconciler.reconcile()).isZero();
+        assertThat(carRepo.findById(car.getId()).orElseThrow().getAvailable()).isFalse();
+    }
+
+    @Test
+    void reconcile_takesCarOutOfPoolWhenBookedPeriodStarts() {
+        LocalDate today = LocalDate.now();
+        Car booked = rentedCar("B");
+        booked.setAvailable(true);
+        carRepo.save(booked);
+        Car later = rentedCar("L");
+        later.setAvailable(true);
+        carRepo.save(later);
+        // zarezerwowane wcześniej na termin, który właśnie nadszedł
+        reservation(booked, today, today.plusDays(3), ReservationStatus.CONFIRMED);
+        reservation(later, today.plusDays(1), today.plusDays(3), ReservationStatus.CONFIRMED);
+
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+
+        assertThat(carRepo.findById(booked.getId()).orElseThrow().getAvailable()).isFalse();
+        assertThat(carRepo.findById(later.getId()).orElseThrow().getAvailable()).isTrue();
+        assertThat(watermarkRepo.findById("car-availability-start")).get()
+                .satisfies(w -> assertThat(w.getLastDate()).isEqualTo(today));
+    }
+
+    @Test
+    void cancellingOrDeletingLastReservation_releasesCarImmediately() {
+        LocalDate today = LocalDate.now();
+        Car cancelled = rentedCar("C");
+        Car deleted = rentedCar("D");
+        Long first = reservation(cancelled, today.plusDays(3), today.plusDays(5), ReservationStatus.PENDING).getId();
+        Long second = reservation(deleted, today.plusDays(3), today.plusDays(5), ReservationStatus.PENDING).getId();
+
+        reservationService.changeStatus(first, ReservationStatus.CANCELLED);
+        reservationService.deleteReservation(second);
+
+        assertThat(carRepo.findById(cancelled.getId()).orElseThrow().getAvailable()).isTrue();
+        assertThat(carRepo.findById(deleted.getId()).orElseThrow().getAvailable()).isTrue();
+    }
+
+    private Car rentedCar(String make) {
+        Car car = new Car();
+        car.setMake(make); car.setModel("1"); car.setYear(2022); car.setAvailable(false);
+        return carRepo.save(car);
+    }
+
+    private Reservation reservation(Car car, LocalDate start, LocalDate end, ReservationStatus status) {
+        Reservation r = new Reservation();
+        r.setCar(car);
+        r.setUser(user);
+        r.setStartDate(start);
+        r.setEndDate(end);
+        r.setStatus(status);
+        return resRepo.save(r);
+    }
+}
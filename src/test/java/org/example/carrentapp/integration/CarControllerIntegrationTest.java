@@ -1,7 +1,12 @@
 package org.example.carrentapp.integration;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.carrentapp.config.JacksonConfig;
 import org.example.carrentapp.entity.Car;
 import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,12 +14,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.IOException;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -39,6 +46,9 @@ class CarControllerIntegrationTest {
     @LocalServerPort int port;
     @Autowired TestRestTemplate rest;
     @Autowired CarRepository carRepo;
+    @Autowired UserRepository userRepo;
+    @Autowired RoleRepository roleRepo;
+    @Autowired PasswordEncoder passwordEncoder;
 
     private String base;
 
@@ -55,8 +65,9 @@ class CarControllerIntegrationTest {
 
         base = "http://localhost:" + port + "/api/cars";
 
-        userRest = rest.withBasicAuth("user", "password");
-        adminRest = rest.withBasicAuth("admin", "password");
+        TestAccounts.ensure(userRepo, roleRepo, passwordEncoder);
+        userRest = rest.withBasicAuth("user", TestAccounts.PASSWORD);
+        adminRest = rest.withBasicAuth("admin", TestAccounts.PASSWORD);
     }
 
     @Test
@@ -77,6 +88,34 @@ class CarControllerIntegrationTest {
         assertThat(avail[0].getMake()).isEqualTo("T");
     }
 
+    @Test
+    void getAllCars_withCborAccept_shouldReturnCbor() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+
+        ResponseEntity<byte[]> resp = userRest.exchange(base, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        Car[] cars = JacksonConfig.objectMapper(new CBORFactory()).readValue(resp.getBody(), Car[].class);
+        assertThat(cars).extracting(Car::getModel).containsExactlyInAnyOrder("One", "Two");
+    }
+
+    @Test
+    void getCarById_withSmileAccept_shouldReturnSmile() throws IOException {
+        Car saved = carRepo.findAll().stream().filter(Car::getAvailable).findFirst().orElseThrow();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.valueOf("application/x-jackson-smile")));
+
+        ResponseEntity<byte[]> resp = userRest.exchange(
+                base + "/" + saved.getId(), HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Car car = JacksonConfig.objectMapper(new SmileFactory()).readValue(resp.getBody(), Car.class);
+        assertThat(car.getId()).isEqualTo(saved.getId());
+        assertThat(car.getMake()).isEqualTo("T");
+    }
+
     @Test
     void getCarById_whenExists_shouldReturnCar() {
         Car saved = carRepo.findAll().stream().filter(Car::getAvailable).findFirst().orElseThrow();
@@ -2,11 +2,14 @@ package org.example.carrentapp.integration;
 
 import org.example.carrentapp.entity.Car;
 import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.CarSpecifications;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -39,37 +42,20 @@ class CarRepositoryIntegrationTest {
     private CarRepository carRepository;
 
     @Test
-    void findByAvailableTrue_whenNoCars_shouldReturnEmpty() {
-        assertThat(carRepository.findByAvailableTrue()).isEmpty();
-    }
-
-    @Test
-    void findByAvailableTrue_singleAvailableOnly() {
-        Car a = new Car(); a.setMake("Toyota"); a.setModel("Corolla"); a.setYear(2020); a.setAvailable(true);
-        Car b = new Car(); b.setMake("Ford");   b.setModel("Focus");   b.setYear(2018); b.setAvailable(false);
-        carRepository.saveAll(List.of(a, b));
+    void findBy_keysetSpecification_returnsNextRowsAfterCursor() {
+        Car a = new Car(); a.setMake("Audi"); a.setModel("A3"); a.setYear(2019); a.setAvailable(true);
+        Car b = new Car(); b.setMake("Audi"); b.setModel("A4"); b.setYear(2020); b.setAvailable(false);
+        Car c = new Car(); c.setMake("Audi"); c.setModel("A6"); c.setYear(2021); c.setAvailable(true);
+        Car d = new Car(); d.setMake("BMW");  d.setModel("X1"); d.setYear(2021); d.setAvailable(true);
+        List<Car> saved = carRepository.saveAll(List.of(a, b, c, d));
 
-        List<Car> available = carRepository.findByAvailableTrue();
-        assertThat(available)
-                .hasSize(1)
-                .allMatch(car -> car.getAvailable())  // Zamieniamy isAvailable() na getAvailable()
-                .extracting(Car::getModel)
-                .containsExactly("Corolla");
-    }
-
-    @Test
-    void findByAvailableTrue_multipleAvailable_returnsAllTrue() {
-        Car a = new Car(); a.setMake("Honda"); a.setModel("Civic");   a.setYear(2019); a.setAvailable(true);
-        Car b = new Car(); b.setMake("BMW");   b.setModel("320i");    b.setYear(2021); b.setAvailable(false);
-        Car c = new Car(); c.setMake("Audi");  c.setModel("A4");      c.setYear(2022); c.setAvailable(true);
-        carRepository.saveAll(List.of(a, b, c));
+        Specification<Car> spec = Specification.allOf(
+                CarSpecifications.idGreaterThan(saved.get(0).getId()),
+                CarSpecifications.hasMake("Audi"),
+                CarSpecifications.hasYear(2021));
+        List<Car> page = carRepository.findBy(spec, q -> q.sortBy(Sort.by("id")).limit(10).all());
 
-        List<Car> available = carRepository.findByAvailableTrue();
-        assertThat(available)
-                .hasSize(2)
-                .allMatch(car -> car.getAvailable())  // Zamieniamy isAvailable() na getAvailable()
-                .extracting(Car::getModel)
-                .containsExactlyInAnyOrder("Civic", "A4");
+        assertThat(page).extracting(Car::getModel).containsExactly("A6");
     }
 
     @Test
@@ -1,8 +1,15 @@
 package org.example.carrentapp.integration;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carrentapp.dto.CursorPageDto;
 import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.example.carrentapp.entity.EconomyCar;
+import org.example.carrentapp.entity.LuxuryCar;
 import org.example.carrentapp.repository.CarRepository;
 import org.example.carrentapp.service.CarService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +21,10 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 
 @Testcontainers
@@ -36,10 +47,12 @@ class CarServiceIntegrationTest {
 
     @Autowired private CarService carService;
     @Autowired private CarRepository carRepository;
+    @Autowired private EntityManagerFactory emf;
 
     @BeforeEach
     void setUp() {
         carRepository.deleteAll();
+        carService.rebuildAutocomplete();
     }
 
     @Test
@@ -56,6 +69,19 @@ class CarServiceIntegrationTest {
                 .containsExactly("Tesla", "Model S", 2022, true);
     }
 
+    @Test
+    void getAllCars_largerFleet_returnsFirstPageOfMaxSize() {
+        List<Car> fleet = new ArrayList<>();
+        for (int i = 0; i <= CarService.MAX_PAGE_SIZE; i++) {
+            Car c = new Car(); c.setMake("F"); c.setModel("F" + i); c.setYear(2020); c.setAvailable(true);
+            fleet.add(c);
+        }
+        List<Long> ids = carRepository.saveAll(fleet).stream().map(Car::getId).toList();
+
+        assertThat(carService.getAllCars()).extracting(Car::getId)
+                .containsExactlyElementsOf(ids.subList(0, CarService.MAX_PAGE_SIZE));
+    }
+
     @Test
     void findAvailableCars() {
         Car a = new Car(); a.setMake("A"); a.setModel("A1"); a.setYear(2020); a.setAvailable(true);
@@ -70,6 +96,84 @@ class CarServiceIntegrationTest {
                 .containsExactly("A1", true);
     }
 
+    @Test
+    void findAvailableCars_byCategory_appliesCategoryRules() {
+        Car standard = new Car(); standard.setMake("S"); standard.setModel("S1"); standard.setYear(2010); standard.setAvailable(true);
+        EconomyCar economy = new EconomyCar(); economy.setMake("E"); economy.setModel("E1"); economy.setYear(2019); economy.setAvailable(true);
+        LuxuryCar fresh = new LuxuryCar(); fresh.setMake("L"); fresh.setModel("L1"); fresh.setYear(2022); fresh.setAvailable(true);
+        LuxuryCar retired = new LuxuryCar(); retired.setMake("L"); retired.setModel("L0");
+        retired.setYear(LuxuryCar.LAST_RETIRED_YEAR); retired.setAvailable(true);
+        carService.createCar(standard);
+        carService.createCar(economy);
+        carService.createCar(fresh);
+        carService.createCar(retired);
+
+        // wycofane auto luksusowe odpada już w SQL, a odczyt zwraca właściwe podklasy
+        assertThat(carService.findAvailableCars()).extracting(Car::getModel).containsExactly("S1", "E1", "L1");
+        assertThat(carService.findAvailableCars(CarCategory.LUXURY)).singleElement()
+                .isInstanceOf(LuxuryCar.class)
+                .extracting(Car::getModel).isEqualTo("L1");
+        assertThat(carService.findAvailableCars(CarCategory.ECONOMY)).extracting(Car::getCategory)
+                .containsExactly(CarCategory.ECONOMY);
+        assertThat(carService.getCarsPage(null, CarCategory.LUXURY, null, null, null, false, 10).getItems())
+                .extracting(Car::getModel).containsExactly("L0");
+    }
+
+    @Test
+    void findAvailableCars_forPeriod_pagesThroughFreeFleet() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Car c = i % 2 == 0 ? new EconomyCar() : new Car();
+            c.setMake("P"); c.setModel("P" + i); c.setYear(2022); c.setAvailable(true);
+            ids.add(carService.createCar(c).getId());
+        }
+        LocalDate start = LocalDate.now().plusDays(5);
+        LocalDate end = start.plusDays(2);
+
+        List<Long> seen = new ArrayList<>();
+        Long cursor = null;
+        do {
+            CursorPageDto<Car> page = carService.findAvailableCars(start, end, null, cursor, 2);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(2);
+            page.getItems().forEach(c -> seen.add(c.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(ids);
+        assertThat(carService.findAvailableCars(start, end, CarCategory.ECONOMY, null, 10).getItems())
+                .extracting(Car::getModel).containsExactly("P0", "P2", "P4");
+    }
+
+    @Test
+    void searchCars_matchesWordPrefixesAndFragments() {
+        Car x5 = new Car(); x5.setMake("BMW"); x5.setModel("X5"); x5.setYear(2021); x5.setAvailable(true);
+        Car series = new Car(); series.setMake("BMW"); series.setModel("3 Series"); series.setYear(2020); series.setAvailable(true);
+        Car golf = new Car(); golf.setMake("Volkswagen"); golf.setModel("Golf"); golf.setYear(2019); golf.setAvailable(true);
+        carService.createCar(x5);
+        carService.createCar(series);
+        carService.createCar(golf);
+
+        assertThat(carService.searchCars("bmw", 10)).extracting(Car::getModel).containsExactly("X5", "3 Series");
+        assertThat(carService.searchCars("bm ser", 10)).extracting(Car::getModel).containsExactly("3 Series");
+        // fragment ze środka słowa łapie dopiero indeks trigramowy
+        assertThat(carService.searchCars("swag", 10)).extracting(Car::getModel).containsExactly("Golf");
+        assertThat(carService.searchCars("100%", 10)).isEmpty();
+    }
+
+    @Test
+    void autocomplete_followsCreateUpdateAndDelete() {
+        Car c = new Car(); c.setMake("Skoda"); c.setModel("Octavia"); c.setYear(2020); c.setAvailable(true);
+        Car saved = carService.createCar(c);
+        assertThat(carService.autocomplete("sko", 10)).containsExactly("Skoda", "Skoda Octavia");
+
+        Car payload = new Car(); payload.setMake("Skoda"); payload.setModel("Superb"); payload.setYear(2020); payload.setAvailable(true);
+        carService.updateCar(saved.getId(), payload);
+        assertThat(carService.autocomplete("s", 10)).containsExactly("Skoda", "Skoda Superb", "Superb");
+
+        carService.deleteCar(saved.getId());
+        assertThat(carService.autocomplete("s", 10)).isEmpty();
+    }
+
     @Test
     void getById_update_deleteExisting() {
         Car c = new Car();
@@ -90,6 +194,51 @@ class CarServiceIntegrationTest {
         assertThat(carService.getCarById(saved.getId())).isNull();
     }
 
+    @Test
+    void getCarById_secondRead_shouldComeFromSecondLevelCache() {
+        Car c = new Car();
+        c.setMake("C"); c.setModel("Cached"); c.setYear(2020); c.setAvailable(true);
+        Car saved = carService.createCar(c);
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        emf.getCache().evictAll();
+
+        carService.getCarById(saved.getId());
+        long hitsBefore = stats.getSecondLevelCacheHitCount();
+        carService.getCarById(saved.getId());
+        assertThat(stats.getSecondLevelCacheHitCount()).isGreaterThan(hitsBefore);
+
+        // po aktualizacji cache nie może zwrócić starej wersji
+        Car payload = new Car();
+        payload.setMake("C"); payload.setModel("Updated"); payload.setYear(2020); payload.setAvailable(true);
+        carService.updateCar(saved.getId(), payload);
+        assertThat(carService.getCarById(saved.getId()).getModel()).isEqualTo("Updated");
+
+        carService.deleteCar(saved.getId());
+        assertThat(carService.getCarById(saved.getId())).isNull();
+    }
+
+    @Test
+    void findAvailableCars_secondCall_shouldComeFromQueryCache() {
+        Car c = new Car();
+        c.setMake("Q"); c.setModel("Cached"); c.setYear(2020); c.setAvailable(true);
+        Car saved = carService.createCar(c);
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        emf.getCache().evictAll();
+
+        assertThat(carService.findAvailableCars()).extracting(Car::getId).contains(saved.getId());
+        long hitsBefore = stats.getQueryCacheHitCount();
+        assertThat(carService.findAvailableCars()).extracting(Car::getId).contains(saved.getId());
+        assertThat(stats.getQueryCacheHitCount()).isGreaterThan(hitsBefore);
+
+        // zapis do cars unieważnia wynik – auto wycofane z floty nie może zostać na liście
+        Car payload = new Car();
+        payload.setMake("Q"); payload.setModel("Cached"); payload.setYear(2020); payload.setAvailable(false);
+        carService.updateCar(saved.getId(), payload);
+        assertThat(carService.findAvailableCars()).extracting(Car::getId).doesNotContain(saved.getId());
+
+        carService.deleteCar(saved.getId());
+    }
+
     @Test
     void deleteCar_whenNotExists_returnsFalse() {
         // tutaj testujemy gałąź "return false"
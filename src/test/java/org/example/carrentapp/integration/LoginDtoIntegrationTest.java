@@ -1,7 +1,9 @@
 package org.example.carrentapp.integration;
 
 import org.example.carrentapp.dto.LoginDto;
+import org.example.carrentapp.entity.Role;
 import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.RoleRepository;
 import org.example.carrentapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +21,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 
 
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -45,6 +48,7 @@ class LoginDtoIntegrationTest {
     int port;
     @Autowired TestRestTemplate rest;  // This import is necessary to fix the "cannot find symbol" error
     @Autowired UserRepository userRepo;
+    @Autowired RoleRepository roleRepo;
     @Autowired BCryptPasswordEncoder passwordEncoder;
 
     private String base;
@@ -70,4 +74,74 @@ class LoginDtoIntegrationTest {
         // Assert response status is unauthorized
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
     }
+
+    @Test
+    void basicAuth_withDatabaseUser_usesStoredPasswordAndRoles() {
+        User u = new User();
+        u.setUsername("db_" + uniqueSuffix);
+        u.setEmail("db_" + uniqueSuffix + "@example.com");
+        u.setPassword(passwordEncoder.encode("secret"));
+        u.setRoles(Set.of(userRole()));
+        userRepo.save(u);
+        String cars = "http://localhost:" + port + "/api/cars";
+
+        ResponseEntity<String> ok = rest.withBasicAuth(u.getUsername(), "secret").getForEntity(cars, String.class);
+        ResponseEntity<String> wrong = rest.withBasicAuth(u.getUsername(), "nope").getForEntity(cars, String.class);
+        // rola USER nie daje dostępu do zarządzania użytkownikami
+        ResponseEntity<String> forbidden = rest.withBasicAuth(u.getUsername(), "secret")
+                .getForEntity("http://localhost:" + port + "/api/users", String.class);
+
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(wrong.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(forbidden.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void basicAuth_withLegacyHash_rehashesPasswordOnSuccessfulLogin() {
+        User u = new User();
+        u.setUsername("legacy_" + uniqueSuffix);
+        u.setEmail("legacy_" + uniqueSuffix + "@example.com");
+        // hash sprzed DelegatingPasswordEncoder: bez prefiksu {id} i o niskim koszcie
+        u.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        u.setRoles(Set.of(userRole()));
+        Long id = userRepo.save(u).getId();
+
+        ResponseEntity<String> resp = rest.withBasicAuth(u.getUsername(), "secret")
+                .getForEntity("http://localhost:" + port + "/api/cars", String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        String rehashed = userRepo.findById(id).orElseThrow().getPassword();
+        assertThat(rehashed).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches("secret", rehashed.substring("{bcrypt}".length()))).isTrue();
+    }
+
+    @Test
+    void basicAuth_databaseAccountNamedAdmin_acceptsOnlyItsOwnPassword() {
+        Role admin = roleRepo.findByName("ADMIN").orElseGet(() -> {
+            Role r = new Role();
+            r.setName("ADMIN");
+            return roleRepo.save(r);
+        });
+        User u = new User();
+        u.setUsername("admin");
+        u.setEmail("admin_" + uniqueSuffix + "@example.com");
+        u.setPassword(passwordEncoder.encode("own-secret"));
+        u.setRoles(Set.of(admin));
+        userRepo.save(u);
+        String users = "http://localhost:" + port + "/api/users";
+
+        // nie ma już wbudowanego konta admin / password, które przesłaniałoby to z bazy
+        assertThat(rest.withBasicAuth("admin", "password").getForEntity(users, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(rest.withBasicAuth("admin", "own-secret").getForEntity(users, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    private Role userRole() {
+        return roleRepo.findByName("USER").orElseGet(() -> {
+            Role r = new Role();
+            r.setName("USER");
+            return roleRepo.save(r);
+        });
+    }
 }
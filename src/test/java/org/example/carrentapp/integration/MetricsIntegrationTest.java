@@ -0,0 +1,113 @@
+package org.example.carrentapp.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.*;
+
+@Testcontainers
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+class MetricsIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> pg = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test-db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url",     pg::getJdbcUrl);
+        r.add("spring.datasource.username",pg::getUsername);
+        r.add("spring.datasource.password",pg::getPassword);
+    }
+
+    @LocalServerPort int port;
+    @Autowired TestRestTemplate rest;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired AuthenticationCache authCache;
+    @Autowired UserRepository userRepo;
+    @Autowired RoleRepository roleRepo;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    private String base;
+
+    @BeforeEach
+    void setUp() {
+        base = "http://localhost:" + port;
+        TestAccounts.ensure(userRepo, roleRepo, passwordEncoder);
+    }
+
+    @Test
+    void prometheus_shouldExposeServiceTimersPoolAndHibernateMetrics() {
+        // wywołanie serwisu, żeby pojawił się timer i licznik błędów
+        rest.withBasicAuth("user", TestAccounts.PASSWORD).getForEntity(base + "/api/cars", String.class);
+        rest.withBasicAuth("user", TestAccounts.PASSWORD).getForEntity(base + "/api/reservations/availability?carId=1&start=2025-01-02&end=2025-01-01", String.class);
+
+        ResponseEntity<String> resp = rest.withBasicAuth("admin", TestAccounts.PASSWORD)
+                .getForEntity(base + "/actuator/prometheus", String.class);
+
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody())
+                .contains("carrentapp_service_seconds_bucket")
+                .contains("method=\"getAllCars\"")
+                .contains("carrentapp_service_failures_total")
+                .contains("exception=\"IllegalArgumentException\"")
+                .contains("http_server_requests_seconds_bucket")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_sessions_open_total");
+    }
+
+    @Test
+    void prometheus_forRegularUser_shouldBeForbidden() {
+        ResponseEntity<String> resp = rest.withBasicAuth("user", TestAccounts.PASSWORD)
+                .getForEntity(base + "/actuator/prometheus", String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void repeatedBasicAuth_shouldRunBcryptOnce() {
+        authCache.evictAll();
+        long before = bcryptMatches();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rest.withBasicAuth("user", TestAccounts.PASSWORD).getForEntity(base + "/api/cars", String.class)
+                    .getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        assertThat(bcryptMatches() - before).isEqualTo(1);
+
+        // złe hasło nie trafia w cache i nadal jest odrzucane; przy koncie z UserDetailsCache
+        // DaoAuthenticationProvider sprawdza je jeszcze raz na świeżo wczytanym użytkowniku
+        long beforeWrong = bcryptMatches();
+        assertThat(rest.withBasicAuth("user", "wrong").getForEntity(base + "/api/cars", String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(bcryptMatches() - beforeWrong).isBetween(1L, 2L);
+    }
+
+    private long bcryptMatches() {
+        return meterRegistry.get("carrentapp.password").tag("operation", "matches").timer().count();
+    }
+
+    @Test
+    void health_shouldBePublic() {
+        ResponseEntity<String> resp = rest.getForEntity(base + "/actuator/health", String.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
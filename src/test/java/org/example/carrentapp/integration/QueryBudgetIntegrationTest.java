@@ -0,0 +1,218 @@
+package org.example.carrentapp.integration;
+
+import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.example.carrentapp.entity.EconomyCar;
+import org.example.carrentapp.entity.LuxuryCar;
+import org.example.carrentapp.entity.ReservationStatus;
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.ReservationRepository;
+import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.service.AvailabilityReconciler;
+import org.example.carrentapp.service.CarService;
+import org.example.carrentapp.service.ExportService;
+import org.example.carrentapp.service.ReservationService;
+import org.example.carrentapp.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Budżety zapytań dla metod serwisów i kontrola planów zapytań na PostgreSQL.
+ * Przekroczenie budżetu (np. nowe N+1) albo pełny skan z warunkiem na cars/reservations
+ * kończy test błędem z listą instrukcji.
+ */
+@Testcontainers
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SqlCapture.Config.class)
+class QueryBudgetIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test-db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url",     postgres::getJdbcUrl);
+        r.add("spring.datasource.username",postgres::getUsername);
+        r.add("spring.datasource.password",postgres::getPassword);
+    }
+
+    private static final Set<String> PLANNED_TABLES = Set.of("cars", "reservations");
+
+    @Autowired private SqlCapture sql;
+    @Autowired private DataSource dataSource;
+    @Autowired private ReservationService reservationService;
+    @Autowired private AvailabilityReconciler reconciler;
+    @Autowired private CarService carService;
+    @Autowired private UserService userService;
+    @Autowired private ExportService exportService;
+    @Autowired private CarRepository carRepo;
+    @Autowired private UserRepository userRepo;
+    @Autowired private RoleRepository roleRepo;
+    @Autowired private ReservationRepository resRepo;
+
+    private final List<Car> cars = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private Long reservationId;
+
+    @BeforeEach
+    void setUp() {
+        resRepo.deleteAll();
+        carRepo.deleteAll();
+        userRepo.deleteAll();
+        cars.clear();
+        users.clear();
+
+        for (int i = 0; i < 30; i++) {
+            Car c = i % 5 == 3 ? new LuxuryCar() : i % 5 == 4 ? new EconomyCar() : new Car();
+            c.setMake(i % 2 == 0 ? "Audi" : "BMW");
+            c.setModel("M" + i);
+            c.setYear(c instanceof LuxuryCar ? 2023 : 2015 + i % 8);
+            c.setAvailable(true);
+            cars.add(c);
+        }
+        carRepo.saveAll(cars);
+        Role role = roleRepo.findByName("USER").orElseGet(() -> {
+            Role r = new Role();
+            r.setName("USER");
+            return roleRepo.save(r);
+        });
+        for (int i = 0; i < 5; i++) {
+            User u = new User();
+            u.setUsername("budget" + i);
+            u.setPassword("p");
+            u.setEmail("budget" + i + "@example.com");
+            u.getRoles().add(role);
+            users.add(u);
+        }
+        userRepo.saveAll(users);
+        reservationId = reservationService.createReservation(dto(cars.get(0), users.get(0), 1, 3));
+    }
+
+    @Test
+    void readPaths_stayWithinBudget() {
+        assertBudget("getAllReservations", 1, () -> reservationService.getAllReservations());
+        assertBudget("getReservationById", 1, () -> reservationService.getReservationById(reservationId));
+        assertBudget("getAllUsers", 1, () -> userService.getAllUsers());
+        assertBudget("getUserSummaries", 1, () -> userService.getUserSummaries());
+        // paczka id + konta z rolami; role leniwie dociągane per wiersz dałyby 1 + 5
+        assertBudget("exportUsers", 2,
+                () -> exportService.exportUsers(OutputStream.nullOutputStream(), ExportService.Format.NDJSON));
+        assertBudget("getCarsPage", 1, () -> carService.getCarsPage(null, null, "Audi", null, null, true, 10));
+        assertBudget("findAvailableCars", 1, () -> carService.findAvailableCars());
+        assertBudget("findAvailableCars(LUXURY)", 1, () -> carService.findAvailableCars(CarCategory.LUXURY));
+        assertBudget("searchCars", 1, () -> carService.searchCars("bmw m", 10));
+        assertBudget("autocomplete", 0, () -> carService.autocomplete("bm", 10));
+    }
+
+    @Test
+    void writePaths_stayWithinBudget() {
+        assertBudget("createReservation", 6,
+                () -> reservationService.createReservation(dto(cars.get(1), users.get(1), 1, 3)));
+
+        List<ReservationDto> batch = new ArrayList<>();
+        for (int i = 2; i < 22; i++) {
+            batch.add(dto(cars.get(i), users.get(i % users.size()), 5, 7));
+        }
+        // flaga available i podbicie wersji idą jedną paczką na podklasę auta, nie na auto
+        assertBudget("createReservations(20)", 4 + 2 * CarCategory.values().length,
+                () -> reservationService.createReservations(batch));
+
+        // auto zarezerwowane w setUp wypadło z cache (podbita wersja), więc czytamy je raz z bazy
+        assertBudget("updateReservation", 5,
+                () -> reservationService.updateReservation(reservationId, dto(cars.get(0), users.get(0), 2, 4)));
+
+        User u = new User();
+        u.setUsername("budget-new");
+        u.setPassword("secret");
+        u.setEmail("budget-new@example.com");
+        assertBudget("createUser", 3, () -> userService.createUser(u));
+    }
+
+    @Test
+    void queriesOnCarsAndReservations_useIndexes() {
+        sql.reset();
+        Long carId = cars.get(0).getId();
+        LocalDate start = LocalDate.now().plusDays(1);
+        LocalDate end = LocalDate.now().plusDays(3);
+        reservationService.getAllReservations();
+        reservationService.getReservationById(reservationId);
+        reservationService.createReservation(dto(cars.get(1), users.get(1), 1, 3));
+        reservationService.createReservations(List.of(dto(cars.get(2), users.get(2), 1, 3)));
+        reservationService.updateReservation(reservationId, dto(cars.get(0), users.get(0), 2, 4));
+        reservationService.changeStatus(reservationId, ReservationStatus.CONFIRMED);
+        resRepo.findActiveOverlaps(carId, start, end);
+        resRepo.existsActiveOverlap(carId, start, end);
+        resRepo.findActiveOverlapsForCars(List.of(carId, cars.get(1).getId()), start, end);
+        resRepo.findByUserId(users.get(0).getId());
+        carService.getCarsPage(null, null, "Audi", "M0", null, null, 10);
+        carService.getCarsPage(cars.get(3).getId(), null, null, null, 2016, null, 10);
+        carService.getCarsPage(null, null, null, null, null, true, 10);
+        carService.findAvailableCars();
+        carService.findAvailableCars(CarCategory.ECONOMY);
+        carService.findAvailableCars(CarCategory.LUXURY);
+        carService.getCarsPage(null, CarCategory.STANDARD, null, null, null, true, 10);
+        carService.findAvailableCars(start, end, CarCategory.LUXURY, null, 10);
+        carService.searchCars("audi m1", 10);
+        carService.searchCars("udi", 10);
+        reconciler.reconcile();
+        List<SqlCapture.Statement> statements = sql.statements();
+
+        Map<String, List<String>> offenders = new LinkedHashMap<>();
+        statements.stream()
+                .filter(st -> !st.sql().stripLeading().toLowerCase().startsWith("insert"))
+                .filter(st -> PLANNED_TABLES.stream().anyMatch(st::touches))
+                .forEach(st -> {
+                    List<String> scans = QueryPlans.filteredSeqScans(dataSource, st, PLANNED_TABLES);
+                    if (!scans.isEmpty()) {
+                        offenders.putIfAbsent(st.sql(), scans);
+                    }
+                });
+        assertThat(offenders).as("zapytania bez indeksu").isEmpty();
+    }
+
+    // Uruchamia akcję i sprawdza, że nie wykonała więcej instrukcji SQL niż budżet
+    private void assertBudget(String name, int budget, Runnable action) {
+        sql.reset();
+        action.run();
+        assertThat(sql.count())
+                .as("%s wykonał %d instrukcji:%n%s", name, sql.count(), String.join("\n", sql.sql()))
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private static ReservationDto dto(Car car, User user, int fromDays, int toDays) {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(car.getId());
+        dto.setUserId(user.getId());
+        dto.setStartDate(LocalDate.now().plusDays(fromDays));
+        dto.setEndDate(LocalDate.now().plusDays(toDays));
+        return dto;
+    }
+}
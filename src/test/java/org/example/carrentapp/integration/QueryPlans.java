@@ -0,0 +1,78 @@
+package org.example.carrentapp.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * EXPLAIN dla zapisanych instrukcji na PostgreSQL z testu.
+ * <p>
+ * Tabele w testach są małe, więc planista i tak wybrałby pełny skan. Dlatego plan liczymy
+ * przy {@code enable_seqscan = off}: jeśli mimo to zostaje "Seq Scan" z warunkiem (Filter),
+ * to żaden indeks nie obsłuży tego zapytania także na dużej tabeli. Skan bez warunku
+ * (np. pełna lista) nie jest traktowany jako błąd.
+ */
+public final class QueryPlans {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private QueryPlans() {
+    }
+
+    // Opisy węzłów "Seq Scan on <tabela> (Filter: ...)" dla podanych tabel; pusta lista = OK
+    public static List<String> filteredSeqScans(DataSource dataSource, SqlCapture.Statement statement,
+                                                Set<String> tables) {
+        List<String> found = new ArrayList<>();
+        collect(explain(dataSource, statement).path(0).path("Plan"), tables, found);
+        return found;
+    }
+
+    public static JsonNode explain(DataSource dataSource, SqlCapture.Statement statement) {
+        try (Connection c = dataSource.getConnection()) {
+            boolean autoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+            try {
+                try (var st = c.createStatement()) {
+                    st.execute("SET LOCAL enable_seqscan = off");
+                }
+                try (PreparedStatement ps = c.prepareStatement("EXPLAIN (FORMAT JSON) " + statement.sql())) {
+                    for (ParameterSetOperation op : statement.parameters()) {
+                        op.getMethod().invoke(ps, op.getArgs());
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        return MAPPER.readTree(rs.getString(1));
+                    }
+                }
+            } finally {
+                c.rollback();
+                c.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | ReflectiveOperationException | java.io.IOException e) {
+            throw new IllegalStateException("EXPLAIN failed for: " + statement.sql(), e);
+        }
+    }
+
+    private static void collect(JsonNode plan, Set<String> tables, List<String> found) {
+        if (plan.isMissingNode()) {
+            return;
+        }
+        String relation = plan.path("Relation Name").asText();
+        if ("Seq Scan".equals(plan.path("Node Type").asText()) && tables.contains(relation)
+                && plan.has("Filter")) {
+            found.add("Seq Scan on " + relation + " (Filter: " + plan.path("Filter").asText() + ")");
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collect(child, tables, found);
+        }
+    }
+}
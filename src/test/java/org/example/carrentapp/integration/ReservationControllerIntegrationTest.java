@@ -6,6 +6,7 @@ import org.example.carrentapp.entity.Reservation;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.CarRepository;
 import org.example.carrentapp.repository.ReservationRepository;
+import org.example.carrentapp.repository.RoleRepository;
 import org.example.carrentapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -50,6 +52,8 @@ class ReservationControllerIntegrationTest {
     @Autowired UserRepository userRepo;
     @Autowired CarRepository carRepo;
     @Autowired ReservationRepository resRepo;
+    @Autowired RoleRepository roleRepo;
+    @Autowired PasswordEncoder passwordEncoder;
 
     private String resBase;
     private TestRestTemplate adminRest;
@@ -61,8 +65,9 @@ class ReservationControllerIntegrationTest {
         resRepo.deleteAll();
         carRepo.deleteAll();
         userRepo.deleteAll();
+        TestAccounts.ensure(userRepo, roleRepo, passwordEncoder);
         resBase = "http://localhost:" + port + "/api/reservations";
-        adminRest = rest.withBasicAuth("admin", "password");
+        adminRest = rest.withBasicAuth("admin", TestAccounts.PASSWORD);
 
         // create user and car
         User user = new User();
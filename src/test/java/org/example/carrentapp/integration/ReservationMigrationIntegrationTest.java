@@ -0,0 +1,78 @@
+package org.example.carrentapp.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Migracje na danych, jakie mogą już być w produkcji (bez kontekstu Springa)
+@Testcontainers
+class ReservationMigrationIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> pg = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test-db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @Test
+    void v3_movesLaterDoubleBookingsAsideBeforeAddingConstraint() throws SQLException {
+        flyway("2").migrate();
+        try (Connection c = connect(); Statement st = c.createStatement()) {
+            st.execute("insert into users (id, username, password, email) values (1, 'u', 'p', 'u@example.com')");
+            st.execute("insert into cars (id, make, model, year, available) values (1, 'A', 'A1', 2020, false), "
+                    + "(2, 'B', 'B1', 2021, false)");
+            // 2 i 5 nachodzą na 1; 3 nachodzi tylko na 2, więc po przeniesieniu 2 może zostać; 4 to inne auto
+            st.execute("insert into reservations (id, start_date, end_date, user_id, car_id) values "
+                    + "(1, '2025-06-01', '2025-06-05', 1, 1), "
+                    + "(2, '2025-06-05', '2025-06-07', 1, 1), "
+                    + "(3, '2025-06-06', '2025-06-08', 1, 1), "
+                    + "(4, '2025-06-01', '2025-06-05', 1, 2), "
+                    + "(5, '2025-05-20', '2025-06-10', 1, 1)");
+        }
+
+        flyway("3").migrate();
+
+        try (Connection c = connect(); Statement st = c.createStatement()) {
+            assertThat(ids(st, "select id from reservations order by id")).containsExactly(1L, 3L, 4L);
+            assertThat(ids(st, "select id from reservations_overlapping order by id")).containsExactly(2L, 5L);
+            assertThatThrownBy(() -> st.execute("insert into reservations (id, start_date, end_date, user_id, car_id) "
+                    + "values (6, '2025-06-02', '2025-06-03', 1, 1)"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("reservations_car_period_excl");
+        }
+    }
+
+    private static Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(pg.getJdbcUrl(), pg.getUsername(), pg.getPassword())
+                .locations("classpath:db/migration")
+                .target(target)
+                .load();
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(pg.getJdbcUrl(), pg.getUsername(), pg.getPassword());
+    }
+
+    private static List<Long> ids(Statement st, String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
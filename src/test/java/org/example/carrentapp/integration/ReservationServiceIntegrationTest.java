@@ -1,13 +1,22 @@
 package org.example.carrentapp.integration;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.dto.ReservationViewDto;
 import org.example.carrentapp.entity.Car;
 import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.ReservationStatus;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.CarRepository;
 import org.example.carrentapp.repository.ReservationRepository;
 import org.example.carrentapp.repository.UserRepository;
 import org.example.carrentapp.service.ReservationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,12 +24,21 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -46,6 +64,9 @@ class ReservationServiceIntegrationTest {
     @Autowired private CarRepository        carRepo;
     @Autowired private UserRepository       userRepo;
     @Autowired private ReservationRepository resRepo;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private ObjectMapper mapper;
+    @Autowired private PlatformTransactionManager transactionManager;
 
     @BeforeEach
     void setUp() {
@@ -54,6 +75,33 @@ class ReservationServiceIntegrationTest {
         userRepo.deleteAll();
     }
 
+    @Test
+    void reservationWithLazyProxies_serializesTargetEntities() throws Exception {
+        Car car = new Car();
+        car.setMake("Proxy"); car.setModel("P1"); car.setYear(2023); car.setAvailable(true);
+        car = carRepo.save(car);
+        User user = new User();
+        user.setUsername("proxy"); user.setPassword("p"); user.setEmail("proxy@example.com");
+        user = userRepo.save(user);
+        Reservation r = new Reservation();
+        r.setCar(car); r.setUser(user);
+        r.setStartDate(LocalDate.of(2030, 1, 10)); r.setEndDate(LocalDate.of(2030, 1, 12));
+        Long id = resRepo.save(r).getId();
+        emf.getCache().evictAll();
+
+        String json = new TransactionTemplate(transactionManager).execute(tx -> {
+            try {
+                // auto i użytkownik są tu niezainicjalizowanymi proxy (FetchType.LAZY)
+                return mapper.writeValueAsString(resRepo.findById(id).orElseThrow());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(json).doesNotContain("hibernateLazyInitializer", "\"handler\"")
+                .contains("\"make\":\"Proxy\"", "\"username\":\"proxy\"", "\"startDate\":\"2030-01-10\"");
+    }
+
     @Test
     void createAndVerifyReservation() {
         Car car = new Car();
@@ -73,9 +121,9 @@ class ReservationServiceIntegrationTest {
         Long resId = reservationService.createReservation(dto);
         assertThat(resId).isNotNull();
 
-        Reservation got = reservationService.getReservationById(resId);
+        ReservationViewDto got = reservationService.getReservationById(resId);
         assertThat(got).isNotNull()
-                .extracting(r -> r.getCar().getId(), r -> r.getUser().getId())
+                .extracting(r -> r.car().id(), r -> r.user().id())
                 .containsExactly(car.getId(), user.getId());
 
         Car updated = carRepo.findById(car.getId()).orElseThrow();
@@ -108,16 +156,16 @@ class ReservationServiceIntegrationTest {
         Long id2 = reservationService.createReservation(dto2);
 
         // w bazie dwie
-        List<Reservation> all = reservationService.getAllReservations();
+        List<ReservationViewDto> all = reservationService.getAllReservations();
         assertThat(all).hasSize(2)
-                .extracting(Reservation::getId)
+                .extracting(ReservationViewDto::id)
                 .containsExactlyInAnyOrder(id1, id2);
 
         // update pierwszej
-        Reservation first = reservationService.getReservationById(id1);
+        ReservationViewDto first = reservationService.getReservationById(id1);
         ReservationDto upd = new ReservationDto();
-        upd.setStartDate(first.getStartDate().plusDays(1));
-        upd.setEndDate(first.getEndDate().plusDays(1));
+        upd.setStartDate(first.startDate().plusDays(1));
+        upd.setEndDate(first.endDate().plusDays(1));
         Reservation updated = reservationService.updateReservation(id1, upd);
         assertThat(updated).extracting(Reservation::getStartDate, Reservation::getEndDate)
                 .containsExactly(upd.getStartDate(), upd.getEndDate());
@@ -128,10 +176,238 @@ class ReservationServiceIntegrationTest {
         assertThat(reservationService.getReservationById(id1)).isNull();
     }
 
+    @Test
+    void cancelledReservation_staysInHistoryAndFreesPeriod() {
+        Car car = new Car();
+        car.setMake("S"); car.setModel("1"); car.setYear(2023); car.setAvailable(true);
+        car = carRepo.save(car);
+        User user = new User();
+        user.setUsername("st"); user.setPassword("p"); user.setEmail("st@example.com");
+        user = userRepo.save(user);
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(car.getId());
+        dto.setUserId(user.getId());
+        dto.setStartDate(LocalDate.now().plusDays(1));
+        dto.setEndDate(LocalDate.now().plusDays(4));
+        Long id = reservationService.createReservation(dto);
+        assertThat(reservationService.getReservationById(id).status()).isEqualTo(ReservationStatus.PENDING);
+
+        ReservationViewDto cancelled = reservationService.changeStatus(id, ReservationStatus.CANCELLED);
+
+        assertThat(cancelled.status()).isEqualTo(ReservationStatus.CANCELLED);
+        assertThat(resRepo.existsById(id)).isTrue();
+        assertThat(reservationService.isCarFree(car.getId(), dto.getStartDate(), dto.getEndDate())).isTrue();
+        assertThat(resRepo.existsActiveOverlap(car.getId(), dto.getStartDate(), dto.getEndDate())).isFalse();
+        // ograniczenie wykluczające dotyczy tylko stanów aktywnych, więc ten sam termin da się zająć ponownie
+        Reservation again = new Reservation();
+        again.setCar(car);
+        again.setUser(user);
+        again.setStartDate(dto.getStartDate());
+        again.setEndDate(dto.getEndDate());
+        assertThatCode(() -> resRepo.saveAndFlush(again)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> reservationService.changeStatus(id, ReservationStatus.CONFIRMED))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void futureReservation_blocksOnlyItsOwnPeriod() {
+        Car car = new Car();
+        car.setMake("F"); car.setModel("1"); car.setYear(2023); car.setAvailable(true);
+        Long carId = carRepo.save(car).getId();
+        User user = new User();
+        user.setUsername("fut"); user.setPassword("p"); user.setEmail("fut@example.com");
+        Long userId = userRepo.save(user).getId();
+
+        reservationService.createReservation(dto(carId, userId, 10, 12));
+
+        // auto nadal jest w puli, a inny, rozłączny termin da się zarezerwować
+        assertThat(carRepo.findById(carId).orElseThrow().getAvailable()).isTrue();
+        assertThat(reservationService.isCarFree(carId, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3))).isTrue();
+        assertThatCode(() -> reservationService.createReservation(dto(carId, userId, 1, 3))).doesNotThrowAnyException();
+        assertThatThrownBy(() -> reservationService.createReservation(dto(carId, userId, 11, 14)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(resRepo.count()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentReservationsForSameCar_onlyOneSucceeds() throws Exception {
+        Car car = new Car();
+        car.setMake("C"); car.setModel("1"); car.setYear(2023); car.setAvailable(true);
+        Long carId = carRepo.save(car).getId();
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User user = new User();
+            user.setUsername("race" + i); user.setPassword("p"); user.setEmail("race" + i + "@example.com");
+            userIds.add(userRepo.save(user).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(userIds.size());
+        List<Callable<Long>> attempts = new ArrayList<>();
+        for (Long userId : userIds) {
+            attempts.add(() -> {
+                ReservationDto dto = new ReservationDto();
+                dto.setCarId(carId);
+                dto.setUserId(userId);
+                dto.setStartDate(LocalDate.now().plusDays(10));
+                dto.setEndDate(LocalDate.now().plusDays(12));
+                return reservationService.createReservation(dto);
+            });
+        }
+        int succeeded = 0;
+        for (Future<Long> f : pool.invokeAll(attempts)) {
+            try {
+                f.get();
+                succeeded++;
+            } catch (Exception expected) {
+                // konflikt – auto już zarezerwowane
+            }
+        }
+        pool.shutdown();
+
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(resRepo.count()).isEqualTo(1);
+    }
+
+    @Test
+    void reservationsOnVirtualThreads_doNotPinCarrierThreads() throws Exception {
+        User user = new User();
+        user.setUsername("vt"); user.setPassword("p"); user.setEmail("vt@example.com");
+        Long userId = userRepo.save(user).getId();
+        List<Long> carIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Car car = new Car();
+            car.setMake("V"); car.setModel("T" + i); car.setYear(2024); car.setAvailable(true);
+            carIds.add(carRepo.save(car).getId());
+        }
+
+        // JFR zgłasza jdk.VirtualThreadPinned, gdy wątek wirtualny blokuje się wewnątrz synchronized
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream rs = new RecordingStream()) {
+            rs.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            rs.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            rs.startAsync();
+
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Callable<Long>> bookings = new ArrayList<>();
+                for (Long carId : carIds) {
+                    bookings.add(() -> {
+                        ReservationDto dto = new ReservationDto();
+                        dto.setCarId(carId);
+                        dto.setUserId(userId);
+                        dto.setStartDate(LocalDate.now().plusDays(1));
+                        dto.setEndDate(LocalDate.now().plusDays(2));
+                        return reservationService.createReservation(dto);
+                    });
+                }
+                for (Future<Long> f : pool.invokeAll(bookings)) {
+                    assertThat(f.get()).isNotNull();
+                }
+            }
+            rs.stop();
+        }
+
+        assertThat(pinned)
+                .as("stosy przypięć: %s", pinned.stream().map(e -> String.valueOf(e.getStackTrace())).toList())
+                .isEmpty();
+    }
+
+    @Test
+    void getAllReservations_readsCarsAndUsersInOneStatement() {
+        for (int i = 0; i < 20; i++) {
+            Car car = new Car(); car.setMake("L"); car.setModel("L" + i); car.setYear(2023); car.setAvailable(true);
+            car = carRepo.save(car);
+            User user = new User(); user.setUsername("lister" + i); user.setPassword("p"); user.setEmail("lister" + i + "@example.com");
+            user = userRepo.save(user);
+            ReservationDto dto = new ReservationDto();
+            dto.setCarId(car.getId());
+            dto.setUserId(user.getId());
+            dto.setStartDate(LocalDate.now().plusDays(1));
+            dto.setEndDate(LocalDate.now().plusDays(2));
+            reservationService.createReservation(dto);
+        }
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<ReservationViewDto> all = reservationService.getAllReservations();
+
+        assertThat(all).hasSize(20).allSatisfy(r -> {
+            assertThat(r.car().make()).isEqualTo("L");
+            assertThat(r.user().username()).startsWith("lister");
+        });
+        // jedno zapytanie z joinami, żadnej encji ani proxy do zainicjowania
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void createReservations_batch_insertsWithJdbcBatching() {
+        User user = new User();
+        user.setUsername("corp"); user.setPassword("p"); user.setEmail("corp@example.com");
+        Long userId = userRepo.save(user).getId();
+        List<ReservationDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Car car = new Car();
+            car.setMake("B"); car.setModel("B" + i); car.setYear(2024); car.setAvailable(true);
+            ReservationDto dto = new ReservationDto();
+            dto.setCarId(carRepo.save(car).getId());
+            dto.setUserId(userId);
+            dto.setStartDate(LocalDate.now());
+            dto.setEndDate(LocalDate.now().plusDays(4));
+            dtos.add(dto);
+        }
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<Long> ids = reservationService.createReservations(dtos);
+
+        assertThat(ids).hasSize(30).doesNotHaveDuplicates();
+        assertThat(resRepo.count()).isEqualTo(30);
+        // wynajem od dziś – auta wypadają z puli
+        assertThat(carRepo.findAll()).noneMatch(Car::getAvailable);
+        // 30 rezerwacji w 30 insertach, ale nie w 30 osobnych instrukcjach
+        assertThat(stats.getEntityInsertCount()).isEqualTo(30);
+        assertThat(stats.getPrepareStatementCount()).isLessThan(30);
+    }
+
+    @Test
+    void createReservations_whenOneCarTaken_insertsNothing() {
+        User user = new User();
+        user.setUsername("corp2"); user.setPassword("p"); user.setEmail("corp2@example.com");
+        Long userId = userRepo.save(user).getId();
+        List<ReservationDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Car car = new Car();
+            car.setMake("N"); car.setModel("N" + i); car.setYear(2024); car.setAvailable(true);
+            ReservationDto dto = new ReservationDto();
+            dto.setCarId(carRepo.save(car).getId());
+            dto.setUserId(userId);
+            // wynajem od dziś zdejmuje auto z puli, więc wycofana paczka nie może zostawić śladu we flagach
+            dto.setStartDate(LocalDate.now());
+            dto.setEndDate(LocalDate.now().plusDays(2));
+            dtos.add(dto);
+        }
+        reservationService.createReservation(dtos.get(2));
+
+        assertThatThrownBy(() -> reservationService.createReservations(dtos))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(resRepo.count()).isEqualTo(1);
+        assertThat(carRepo.findAll()).filteredOn(Car::getAvailable).hasSize(2);
+    }
+
     @Test
     void deleteReservation_whenNotExists_returnsFalse() {
         // testujemy gałąź "return false"
         boolean deleted = reservationService.deleteReservation(8888L);
         assertThat(deleted).isFalse();
     }
+
+    private static ReservationDto dto(Long carId, Long userId, int fromDays, int toDays) {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(carId);
+        dto.setUserId(userId);
+        dto.setStartDate(LocalDate.now().plusDays(fromDays));
+        dto.setEndDate(LocalDate.now().plusDays(toDays));
+        return dto;
+    }
 }
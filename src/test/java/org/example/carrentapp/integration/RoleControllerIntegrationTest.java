@@ -2,6 +2,7 @@ package org.example.carrentapp.integration;
 
 import org.example.carrentapp.entity.Role;
 import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -42,6 +44,8 @@ class RoleControllerIntegrationTest {
     @LocalServerPort int port;
     @Autowired TestRestTemplate rest;
     @Autowired RoleRepository repo;
+    @Autowired UserRepository userRepo;
+    @Autowired PasswordEncoder passwordEncoder;
 
     private String base;
     private TestRestTemplate adminRest;
@@ -49,16 +53,17 @@ class RoleControllerIntegrationTest {
     @BeforeEach
     void setUp() {
         repo.deleteAll();
+        TestAccounts.ensure(userRepo, repo, passwordEncoder);
         base = "http://localhost:" + port + "/api/roles";
-        adminRest = rest.withBasicAuth("admin", "password");  // Ensure you are using admin credentials here
+        adminRest = rest.withBasicAuth("admin", TestAccounts.PASSWORD);
     }
 
     @Test
-    void listEmpty_andCrudRole() {
-        // LIST empty
-        ResponseEntity<Role[]> empty = adminRest.getForEntity(base, Role[].class);
-        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(empty.getBody()).isEmpty();
+    void listAccountRoles_andCrudRole() {
+        // LIST – tylko role kont testowych
+        ResponseEntity<Role[]> initial = adminRest.getForEntity(base, Role[].class);
+        assertThat(initial.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(initial.getBody()).extracting(Role::getName).containsExactlyInAnyOrder("ADMIN", "USER");
 
         // CREATE
         Role toCreate = new Role();
@@ -72,7 +77,7 @@ class RoleControllerIntegrationTest {
 
         // GET all
         List<Role> all = List.of(adminRest.getForEntity(base, Role[].class).getBody());
-        assertThat(all).hasSize(1).first().extracting(Role::getName).isEqualTo("R1");
+        assertThat(all).extracting(Role::getName).containsExactlyInAnyOrder("ADMIN", "USER", "R1");
 
         // GET by ID
         ResponseEntity<Role> get = adminRest.getForEntity(base + "/" + id, Role.class);
@@ -0,0 +1,95 @@
+package org.example.carrentapp.integration;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Instrukcje SQL wykonane przez aplikację w teście (datasource-proxy wokół DataSource).
+ * Test dołącza {@link Config} przez {@code @Import}, woła {@link #reset()} przed mierzonym
+ * wywołaniem i sprawdza {@link #count()} albo {@link #statements()}.
+ * <p>
+ * Paczka JDBC (executeBatch) to jedno wykonanie – liczymy rundy do bazy, nie wiersze.
+ */
+public class SqlCapture implements QueryExecutionListener {
+
+    // Parametry zapamiętane jako operacje set*, żeby dało się je odtworzyć np. pod EXPLAIN
+    public record Statement(String sql, List<ParameterSetOperation> parameters, int batchSize) {
+
+        public boolean isSelect() {
+            return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+        }
+
+        public boolean touches(String table) {
+            return sql.toLowerCase(Locale.ROOT).matches("(?s).*\\b(from|join|update|into)\\s+" + table + "\\b.*");
+        }
+    }
+
+    private final List<Statement> statements = new CopyOnWriteArrayList<>();
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<Statement> statements() {
+        return List.copyOf(statements);
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    public List<String> sql() {
+        return statements.stream().map(Statement::sql).toList();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo query : queryInfoList) {
+            List<List<ParameterSetOperation>> sets = query.getParametersList();
+            statements.add(new Statement(query.getQuery(), sets.isEmpty() ? List.of() : List.copyOf(sets.get(0)),
+                    Math.max(1, sets.size())));
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor sqlCaptureDataSourceProxy(ObjectProvider<SqlCapture> capture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name(beanName)
+                                .listener(capture.getObject())
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.carrentapp.integration;
+
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Konta HTTP Basic dla testów kontrolerów: {@code admin} (ADMIN) i {@code user} (USER) z hasłem
+ * {@link #PASSWORD}. Aplikacja zna tylko konta z tabeli users, więc test zakłada je sam –
+ * po {@code deleteAll()} użytkowników lub ról trzeba wywołać {@link #ensure} ponownie.
+ */
+public final class TestAccounts {
+
+    public static final String PASSWORD = "password";
+
+    // Hash liczony raz na JVM – koszt BCrypt jest kalibrowany na ok. 100 ms
+    private static String passwordHash;
+
+    private TestAccounts() {
+    }
+
+    public static void ensure(UserRepository userRepo, RoleRepository roleRepo, PasswordEncoder encoder) {
+        account(userRepo, roleRepo, encoder, "admin", "ADMIN");
+        account(userRepo, roleRepo, encoder, "user", "USER");
+    }
+
+    private static void account(UserRepository userRepo, RoleRepository roleRepo, PasswordEncoder encoder,
+                                String username, String roleName) {
+        Role role = roleRepo.findByName(roleName).orElseGet(() -> {
+            Role r = new Role();
+            r.setName(roleName);
+            return roleRepo.save(r);
+        });
+        User user = userRepo.findWithRolesByUsername(username).orElseGet(() -> {
+            User u = new User();
+            u.setUsername(username);
+            u.setEmail(username + "@accounts.test");
+            u.setPassword(hash(encoder));
+            return u;
+        });
+        if (user.getId() == null || user.getRoles().stream().noneMatch(r -> r.getId().equals(role.getId()))) {
+            user.getRoles().add(role);
+            userRepo.save(user);
+        }
+    }
+
+    private static synchronized String hash(PasswordEncoder encoder) {
+        if (passwordHash == null) {
+            passwordHash = encoder.encode(PASSWORD);
+        }
+        return passwordHash;
+    }
+}
@@ -2,6 +2,8 @@
 package org.example.carrentapp.integration;
 
 import org.example.carrentapp.dto.UserDto;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.RoleRepository;
 import org.example.carrentapp.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -43,6 +46,8 @@ class UserControllerIntegrationTest {
     @LocalServerPort int port;
     @Autowired TestRestTemplate rest;
     @Autowired UserRepository userRepo;
+    @Autowired RoleRepository roleRepo;
+    @Autowired PasswordEncoder passwordEncoder;
 
     private String base;
     private TestRestTemplate adminRest;
@@ -51,16 +56,18 @@ class UserControllerIntegrationTest {
     @BeforeEach
     void setUp() {
         userRepo.deleteAll();
+        TestAccounts.ensure(userRepo, roleRepo, passwordEncoder);
         uniqueSuffix = UUID.randomUUID().toString().substring(0, 8);
         base = "http://localhost:" + port + "/api/users";
-        adminRest = rest.withBasicAuth("admin", "password");
+        adminRest = rest.withBasicAuth("admin", TestAccounts.PASSWORD);
     }
 
     @Test
-    void listUsers_whenEmpty_shouldReturnEmptyArray() {
-        ResponseEntity<UserDto[]> response = adminRest.getForEntity(base, UserDto[].class);
+    void listUsers_withOnlyTestAccounts_shouldReturnJustThem() {
+        // lista zwraca encje z rolami (obiekty), więc czytamy ją jako User, nie UserDto
+        ResponseEntity<User[]> response = adminRest.getForEntity(base, User[].class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(response.getBody()).isEmpty();
+        assertThat(response.getBody()).extracting(User::getUsername).containsExactlyInAnyOrder("admin", "user");
     }
 
     @Test
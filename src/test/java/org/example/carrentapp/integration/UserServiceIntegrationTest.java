@@ -6,17 +6,23 @@ import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.RoleRepository;
 import org.example.carrentapp.repository.UserRepository;
 import org.example.carrentapp.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
@@ -42,6 +48,7 @@ class UserServiceIntegrationTest {
     @Autowired private UserService userService;
     @Autowired private UserRepository userRepo;
     @Autowired private RoleRepository roleRepo;
+    @Autowired private EntityManagerFactory emf;
 
     @BeforeEach
     void setUp() {
@@ -105,4 +112,103 @@ class UserServiceIntegrationTest {
         boolean deleted = userService.deleteUser(12345L);
         assertThat(deleted).isFalse();
     }
+
+    @Test
+    void importUsers_insertsUsersAndRolesWithJdbcBatching() {
+        Role role = new Role();
+        role.setName("ROLE_PARTNER");
+        role = roleRepo.save(role);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            User u = new User();
+            u.setUsername("partner" + i);
+            u.setEmail("partner" + i + "@example.com");
+            u.setPassword("pw" + i);
+            Role ref = new Role();
+            ref.setId(role.getId());
+            u.getRoles().add(ref);
+            users.add(u);
+        }
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<Long> ids = userService.importUsers(users);
+
+        assertThat(ids).hasSize(120).doesNotHaveDuplicates();
+        assertThat(userRepo.findWithRolesByUsername("partner119").orElseThrow().getRoles())
+                .extracting(Role::getName).containsExactly("ROLE_PARTNER");
+        // 120 wierszy users i 120 user_roles, ale nie po jednej instrukcji na wiersz
+        assertThat(stats.getEntityInsertCount()).isEqualTo(120);
+        assertThat(stats.getPrepareStatementCount()).isLessThan(60);
+    }
+
+    @Test
+    void importUsers_whenOneUsernameTaken_insertsNothing() {
+        User existing = new User();
+        existing.setUsername("taken"); existing.setPassword("pw"); existing.setEmail("taken@example.com");
+        userService.createUser(existing);
+
+        User fresh = new User();
+        fresh.setUsername("fresh"); fresh.setPassword("pw"); fresh.setEmail("fresh@example.com");
+        User clash = new User();
+        clash.setUsername("taken"); clash.setPassword("pw"); clash.setEmail("other@example.com");
+
+        assertThatThrownBy(() -> userService.importUsers(List.of(fresh, clash)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(userRepo.count()).isEqualTo(1);
+    }
+
+    @Test
+    void getAllUsers_loadsRolesInOneStatement() {
+        Role admin = new Role();
+        admin.setName("ROLE_LIST_A");
+        admin = roleRepo.save(admin);
+        Role user = new Role();
+        user.setName("ROLE_LIST_U");
+        user = roleRepo.save(user);
+        for (int i = 0; i < 30; i++) {
+            User u = new User();
+            u.setUsername("list" + i);
+            u.setPassword("pw");
+            u.setEmail("list" + i + "@example.com");
+            u.getRoles().add(user);
+            if (i % 3 == 0) {
+                u.getRoles().add(admin);
+            }
+            userRepo.save(u);
+        }
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<User> all = userService.getAllUsers();
+        long roleAssignments = all.stream().mapToLong(u -> u.getRoles().size()).sum();
+
+        assertThat(all).hasSize(30);
+        assertThat(roleAssignments).isEqualTo(40);
+        // wcześniej (EAGER) jedno zapytanie o role na każdego użytkownika
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getUserSummaries_doesNotTouchRoles() {
+        Role role = new Role();
+        role.setName("ROLE_SUMMARY");
+        role = roleRepo.save(role);
+        for (int i = 0; i < 5; i++) {
+            User u = new User();
+            u.setUsername("sum" + i);
+            u.setPassword("pw");
+            u.setEmail("sum" + i + "@example.com");
+            u.getRoles().add(role);
+            userRepo.save(u);
+        }
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        var summaries = userService.getUserSummaries();
+
+        assertThat(summaries).extracting("username").containsExactly("sum0", "sum1", "sum2", "sum3", "sum4");
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getCollectionLoadCount()).isZero();
+    }
 }
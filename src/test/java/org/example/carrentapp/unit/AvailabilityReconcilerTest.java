@@ -0,0 +1,133 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.ReconcilerWatermark;
+import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.ReconcilerWatermarkRepository;
+import org.example.carrentapp.repository.ReservationRepository;
+import org.example.carrentapp.service.AvailabilityReconciler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AvailabilityReconcilerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Mock private ReservationRepository reservationRepo;
+    @Mock private CarRepository carRepo;
+    @Mock private ReconcilerWatermarkRepository watermarkRepo;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private Car first;
+    private Car second;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        first = car(1L);
+        second = car(2L);
+        when(watermarkRepo.findById(any())).thenReturn(Optional.empty());
+        when(watermarkRepo.save(any())).thenAnswer(inv -> {
+            ReconcilerWatermark saved = inv.getArgument(0);
+            when(watermarkRepo.findById(saved.getName())).thenReturn(Optional.of(saved));
+            return saved;
+        });
+    }
+
+    @Test
+    void reconcile_shouldReleaseOnlyCarsWithNothingLeftBlocking() {
+        when(reservationRepo.findEndedAfter(any(), any(), eq(TODAY), any()))
+                .thenReturn(List.of(reservation(10L, first, 5), reservation(11L, second, 7)));
+        when(carRepo.findAllByIdForUpdate(Set.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(reservationRepo.findBlockedCarIds(Set.of(1L, 2L), TODAY)).thenReturn(List.of(2L));
+
+        int released = reconciler(10).reconcile();
+
+        assertThat(released).isEqualTo(1);
+        assertThat(first.getAvailable()).isTrue();
+        assertThat(second.getAvailable()).isFalse();
+    }
+
+    @Test
+    void reconcile_shouldContinueFromWatermarkInChunks() {
+        when(reservationRepo.findEndedAfter(any(), any(), eq(TODAY), any()))
+                .thenReturn(List.of(reservation(10L, first, 5), reservation(11L, second, 7)))
+                .thenReturn(List.of(reservation(12L, first, 9)));
+        when(carRepo.findAllByIdForUpdate(any())).thenReturn(List.of(first, second));
+
+        reconciler(2).reconcile();
+
+        InOrder order = inOrder(reservationRepo);
+        order.verify(reservationRepo).findEndedAfter(LocalDate.EPOCH, 0L, TODAY, Limit.of(2));
+        order.verify(reservationRepo).findEndedAfter(TODAY.minusDays(7), 11L, TODAY, Limit.of(2));
+        verify(reservationRepo, times(2)).findEndedAfter(any(), any(), any(), any());
+        assertThat(watermarkRepo.findById("car-availability")).get()
+                .extracting(ReconcilerWatermark::getLastDate, ReconcilerWatermark::getLastId)
+                .containsExactly(TODAY.minusDays(9), 12L);
+    }
+
+    @Test
+    void reconcile_startedReservation_shouldTakeCarOutOfPool() {
+        first.setAvailable(true);
+        Reservation startedToday = reservation(20L, first, -3);
+        when(reservationRepo.findStartedAfter(any(), any(), eq(TODAY), any())).thenReturn(List.of(startedToday));
+        when(carRepo.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(first));
+        when(reservationRepo.findBlockedCarIds(Set.of(1L), TODAY)).thenReturn(List.of(1L));
+
+        assertThat(reconciler(10).reconcile()).isEqualTo(1);
+
+        assertThat(first.getAvailable()).isFalse();
+        verify(reservationRepo).findStartedAfter(LocalDate.EPOCH, 0L, TODAY, Limit.of(10));
+        assertThat(watermarkRepo.findById("car-availability-start")).get()
+                .extracting(ReconcilerWatermark::getLastDate, ReconcilerWatermark::getLastId)
+                .containsExactly(TODAY, 20L);
+    }
+
+    @Test
+    void reconcile_nothingStartedOrEnded_shouldNotLockCarsOrMoveWatermark() {
+        when(reservationRepo.findStartedAfter(any(), any(), any(), any())).thenReturn(List.of());
+        when(reservationRepo.findEndedAfter(any(), any(), any(), any())).thenReturn(List.of());
+
+        assertThat(reconciler(10).reconcile()).isZero();
+
+        verify(carRepo, never()).findAllByIdForUpdate(any());
+        verify(watermarkRepo, never()).save(any());
+    }
+
+    private AvailabilityReconciler reconciler(int chunkSize) {
+        Clock clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        return new AvailabilityReconciler(reservationRepo, carRepo, watermarkRepo, transactionManager, chunkSize, clock);
+    }
+
+    private static Car car(Long id) {
+        Car car = new Car();
+        car.setId(id);
+        car.setAvailable(false);
+        return car;
+    }
+
+    private static Reservation reservation(Long id, Car car, int endedDaysAgo) {
+        Reservation r = new Reservation();
+        r.setId(id);
+        r.setCar(car);
+        r.setStartDate(TODAY.minusDays(endedDaysAgo + 3));
+        r.setEndDate(TODAY.minusDays(endedDaysAgo));
+        return r;
+    }
+}
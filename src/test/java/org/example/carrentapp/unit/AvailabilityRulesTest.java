@@ -0,0 +1,83 @@
+package org.example.carrentapp.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carrentapp.available.AvailabilityRule;
+import org.example.carrentapp.available.AvailabilityRules;
+import org.example.carrentapp.available.LuxuryAvailabilityRule;
+import org.example.carrentapp.available.StandardAvailabilityRule;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.example.carrentapp.entity.LuxuryCar;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AvailabilityRulesTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void onlyRootCategoryMapped_shouldUseItsRuleWithoutTypeCondition() {
+        Specification<Car> standard = (root, query, cb) -> cb.isTrue(root.get("available"));
+        AvailabilityRule rule = fixedRule(Car.class, standard);
+
+        AvailabilityRules rules = new AvailabilityRules(List.of(rule, new LuxuryAvailabilityRule()), Set.of(Car.class), registry);
+
+        // reguła LuxuryCar nie ma zmapowanej klasy, więc nie trafia do zapytania
+        assertThat(rules.available()).isSameAs(standard);
+    }
+
+    @Test
+    void mappedCategoryWithoutRule_shouldFailAtStartup() {
+        assertThatThrownBy(() -> new AvailabilityRules(List.of(new LuxuryAvailabilityRule()), Set.of(Car.class), registry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Car");
+    }
+
+    @Test
+    void categoryNotMapped_shouldBeRejected() {
+        AvailabilityRules rules = new AvailabilityRules(
+                List.of(new StandardAvailabilityRule(), new LuxuryAvailabilityRule()), Set.of(Car.class), registry);
+
+        assertThat(rules.available(CarCategory.STANDARD)).isNotNull();
+        assertThatThrownBy(() -> rules.available(CarCategory.LUXURY))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("LUXURY");
+    }
+
+    @Test
+    void verify_shouldDropAndCountRowsRejectedByJavaRule() {
+        AvailabilityRules rules = new AvailabilityRules(
+                List.of(new StandardAvailabilityRule(), new LuxuryAvailabilityRule()), Set.of(Car.class), registry);
+        Car regular = new Car();
+        regular.setYear(2010);
+        regular.setAvailable(true);
+        LuxuryCar retired = new LuxuryCar();
+        retired.setYear(LuxuryCar.LAST_RETIRED_YEAR);
+        retired.setAvailable(true);
+
+        List<Car> confirmed = rules.verify(List.of(regular, retired));
+
+        assertThat(confirmed).containsExactly(regular);
+        assertThat(registry.get("carrentapp.availability.rule.mismatches").counter().count()).isEqualTo(1.0);
+    }
+
+    private static AvailabilityRule fixedRule(Class<? extends Car> category, Specification<Car> predicate) {
+        return new AvailabilityRule() {
+            @Override
+            public Class<? extends Car> category() {
+                return category;
+            }
+
+            @Override
+            public Specification<Car> predicate() {
+                return predicate;
+            }
+        };
+    }
+}
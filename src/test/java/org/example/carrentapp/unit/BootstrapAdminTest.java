@@ -0,0 +1,59 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.security.BootstrapAdmin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BootstrapAdminTest {
+
+    private UserRepository userRepo;
+    private RoleRepository roleRepo;
+    private BootstrapAdmin bootstrap;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepository.class);
+        roleRepo = mock(RoleRepository.class);
+        when(roleRepo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode("first-run")).thenReturn("{bcrypt}hash");
+        bootstrap = new BootstrapAdmin(userRepo, roleRepo, encoder,
+                "admin", "admin@example.com", "first-run");
+    }
+
+    @Test
+    void emptyDatabase_shouldCreateAdminWithHashedPasswordAndRole() {
+        when(userRepo.findByUsername("admin")).thenReturn(Optional.empty());
+        when(roleRepo.findByName("ADMIN")).thenReturn(Optional.empty());
+
+        assertThat(bootstrap.createIfMissing()).isTrue();
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepo).save(saved.capture());
+        assertThat(saved.getValue().getPassword()).isEqualTo("{bcrypt}hash");
+        assertThat(saved.getValue().getEmail()).isEqualTo("admin@example.com");
+        assertThat(saved.getValue().getRoles()).extracting(Role::getName).containsExactly("ADMIN");
+    }
+
+    @Test
+    void existingAccount_shouldBeLeftAlone() {
+        when(userRepo.findByUsername("admin")).thenReturn(Optional.of(new User()));
+
+        assertThat(bootstrap.createIfMissing()).isFalse();
+
+        verify(userRepo, never()).save(any());
+        verifyNoInteractions(roleRepo);
+    }
+}
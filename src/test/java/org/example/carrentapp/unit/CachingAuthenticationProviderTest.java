@@ -0,0 +1,108 @@
+package org.example.carrentapp.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.example.carrentapp.security.CachingAuthenticationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private AuthenticationProvider delegate;
+    private AuthenticationCache cache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(AuthenticationProvider.class);
+        when(delegate.supports(any())).thenReturn(true);
+        cache = new AuthenticationCache(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+        provider = new CachingAuthenticationProvider(delegate, cache);
+    }
+
+    private static Authentication success(String username) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+    @Test
+    void secondRequestWithSameCredentials_shouldSkipDelegate() {
+        when(delegate.authenticate(any())).thenReturn(success("anna"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+        Authentication again = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+
+        assertThat(again.getName()).isEqualTo("anna");
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void differentPassword_shouldGoToDelegate() {
+        when(delegate.authenticate(any()))
+                .thenReturn(success("anna"))
+                .thenThrow(new BadCredentialsException("bad"));
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+
+        assertThatThrownBy(() -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "guess")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void failedLogin_shouldNotBeCached() {
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "guess")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        verify(delegate, times(2)).authenticate(any());
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evict_shouldForceVerificationForThatUserOnly() {
+        when(delegate.authenticate(any())).thenAnswer(inv -> success(((Authentication) inv.getArgument(0)).getName()));
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("bob", "secret"));
+
+        cache.evict("anna");
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("bob", "secret"));
+
+        verify(delegate, times(3)).authenticate(any());
+    }
+
+    @Test
+    void cacheHitsThroughProviderManager_shouldReturnFreshInstances() {
+        when(delegate.authenticate(any())).thenAnswer(inv -> UsernamePasswordAuthenticationToken.authenticated(
+                new User("anna", "{bcrypt}hash", AuthorityUtils.createAuthorityList("ROLE_USER")), "secret",
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+        ProviderManager manager = new ProviderManager(provider);
+
+        Authentication first = manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+        Authentication second = manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+        // zmiana tokenu jednego żądania nie może wpływać na kolejne
+        second.setAuthenticated(false);
+        Authentication third = manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("anna", "secret"));
+
+        verify(delegate, times(1)).authenticate(any());
+        assertThat(third).isNotSameAs(second).isNotSameAs(first);
+        assertThat(third.isAuthenticated()).isTrue();
+        assertThat(third.getName()).isEqualTo("anna");
+        assertThat(third.getCredentials()).isNull();
+        assertThat(AuthorityUtils.authorityListToSet(third.getAuthorities())).containsExactly("ROLE_USER");
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.dto.CarNameDto;
+import org.example.carrentapp.search.CarAutocomplete;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarAutocompleteTest {
+
+    private CarAutocomplete autocomplete;
+
+    @BeforeEach
+    void setUp() {
+        autocomplete = new CarAutocomplete();
+        autocomplete.rebuild(List.of(
+                new CarNameDto(1L, "Toyota", "Corolla"),
+                new CarNameDto(2L, "Toyota", "Yaris")));
+    }
+
+    @Test
+    void suggest_shouldMatchMakeModelAndFullName() {
+        assertThat(autocomplete.suggest("toy", 10)).containsExactly("Toyota", "Toyota Corolla", "Toyota Yaris");
+        assertThat(autocomplete.suggest("ya", 10)).containsExactly("Yaris");
+        assertThat(autocomplete.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void register_existingCar_shouldReplaceItsNames() {
+        autocomplete.register(2L, "Toyota", "C-HR");
+
+        assertThat(autocomplete.suggest("ya", 10)).isEmpty();
+        assertThat(autocomplete.suggest("c", 10)).containsExactly("C-HR", "Corolla");
+    }
+
+    @Test
+    void unregister_shouldKeepNamesSharedWithOtherCars() {
+        autocomplete.unregister(1L);
+
+        assertThat(autocomplete.suggest("toy", 10)).containsExactly("Toyota", "Toyota Yaris");
+        assertThat(autocomplete.suggest("cor", 10)).isEmpty();
+    }
+}
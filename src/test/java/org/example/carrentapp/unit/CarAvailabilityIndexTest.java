@@ -0,0 +1,123 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.available.CarAvailabilityIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarAvailabilityIndexTest {
+
+    private CarAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CarAvailabilityIndex();
+        // auto 1: 1-5 czerwca oraz 10-15 czerwca
+        index.book(1L, 1L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 5));
+        index.book(2L, 1L, LocalDate.of(2025, 6, 10), LocalDate.of(2025, 6, 15));
+        // auto 2: 3-12 czerwca
+        index.book(3L, 2L, LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 12));
+    }
+
+    @Test
+    void isFree_gapBetweenReservations_shouldBeTrue() {
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 6), LocalDate.of(2025, 6, 9))).isTrue();
+    }
+
+    @Test
+    void isFree_overlappingOrTouchingDays_shouldBeFalse() {
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 5), LocalDate.of(2025, 6, 6))).isFalse();
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 9), LocalDate.of(2025, 6, 10))).isFalse();
+        assertThat(index.isFree(1L, LocalDate.of(2025, 5, 1), LocalDate.of(2025, 7, 1))).isFalse();
+    }
+
+    @Test
+    void isFree_unknownCar_shouldBeTrue() {
+        assertThat(index.isFree(99L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30))).isTrue();
+    }
+
+    @Test
+    void isFree_ignoringOwnReservation_shouldAllowMovingIt() {
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 8), LocalDate.of(2025, 6, 16), 2L)).isTrue();
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 16), 2L)).isFalse();
+    }
+
+    @Test
+    void book_existingReservation_shouldMoveIt() {
+        index.book(2L, 1L, LocalDate.of(2025, 6, 20), LocalDate.of(2025, 6, 25));
+
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 10), LocalDate.of(2025, 6, 15))).isTrue();
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 22), LocalDate.of(2025, 6, 22))).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void release_shouldFreePeriod() {
+        index.release(3L);
+
+        assertThat(index.isFree(2L, LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 12))).isTrue();
+    }
+
+    @Test
+    void freeCars_shouldReturnOnlyCarsWithoutConflicts() {
+        List<Long> free = index.freeCars(List.of(1L, 2L, 3L), LocalDate.of(2025, 6, 6), LocalDate.of(2025, 6, 9));
+
+        assertThat(free).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void rebuild_shouldReplaceContent() {
+        index.rebuild(List.of(1L), List.of(new CarAvailabilityIndex.Booking(7L, 1L, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 2))));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.isFree(1L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30))).isTrue();
+        assertThat(index.isFree(1L, LocalDate.of(2025, 8, 2), LocalDate.of(2025, 8, 3))).isFalse();
+    }
+
+    @Test
+    void freeCars_fleetWide_shouldUseBitmapWithinHorizon() {
+        Clock clock = Clock.fixed(LocalDate.of(2025, 6, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        CarAvailabilityIndex fleet = new CarAvailabilityIndex(clock, 30);
+        for (long carId = 1; carId <= 130; carId++) {
+            fleet.registerCar(carId);
+        }
+        fleet.book(1L, 1L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 5));
+        fleet.book(2L, 70L, LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 4));
+        fleet.book(3L, 130L, LocalDate.of(2025, 6, 6), LocalDate.of(2025, 6, 8));
+
+        List<Long> free = fleet.freeCars(LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 6));
+
+        assertThat(free).hasSize(127).doesNotContain(1L, 70L, 130L);
+    }
+
+    @Test
+    void freeCars_fleetWide_shouldFallBackOutsideHorizon() {
+        Clock clock = Clock.fixed(LocalDate.of(2025, 6, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        CarAvailabilityIndex fleet = new CarAvailabilityIndex(clock, 30);
+        fleet.registerCar(1L);
+        fleet.registerCar(2L);
+        fleet.book(1L, 2L, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 5));
+
+        assertThat(fleet.freeCars(LocalDate.of(2025, 8, 3), LocalDate.of(2025, 8, 4))).containsExactly(1L);
+    }
+
+    @Test
+    void unregisterCar_shouldDropItFromFleetSearch() {
+        Clock clock = Clock.fixed(LocalDate.of(2025, 6, 1).atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        CarAvailabilityIndex fleet = new CarAvailabilityIndex(clock, 30);
+        fleet.registerCar(1L);
+        fleet.registerCar(2L);
+        fleet.book(1L, 2L, LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 5));
+
+        fleet.unregisterCar(2L);
+
+        assertThat(fleet.freeCars(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 2))).containsExactly(1L);
+        assertThat(fleet.size()).isZero();
+    }
+}
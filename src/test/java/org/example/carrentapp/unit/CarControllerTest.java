@@ -3,20 +3,29 @@ package org.example.carrentapp.unit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.carrentapp.controller.CarController;
+import org.example.carrentapp.dto.CursorPageDto;
 import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.example.carrentapp.entity.EconomyCar;
+import org.example.carrentapp.entity.LuxuryCar;
 import org.example.carrentapp.service.CarService;
+import org.example.carrentapp.service.ExportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDate;
 import java.util.*;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class CarControllerTest {
 
     @Mock private CarService carService;
+    @Mock private ExportService exportService;
     @InjectMocks private CarController controller;
 
     private MockMvc mvc;
@@ -56,6 +66,55 @@ class CarControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(Collections.singletonList(car))));
     }
 
+    @Test
+    void exportCars_ndjson_shouldStreamServiceOutput() throws Exception {
+        doAnswer(inv -> {
+            java.io.OutputStream out = inv.getArgument(0);
+            out.write("{\"id\":5}\n".getBytes());
+            return null;
+        }).when(exportService).exportCars(any(), eq(ExportService.Format.NDJSON));
+
+        MvcResult result = mvc.perform(get("/api/cars/export").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":5}\n"));
+    }
+
+    @Test
+    void getCarsPage_shouldPassFiltersAndReturnCursor() throws Exception {
+        when(carService.getCarsPage(5L, CarCategory.STANDARD, "BMW", null, null, true, 10))
+                .thenReturn(new CursorPageDto<>(List.of(car), 5L));
+
+        mvc.perform(get("/api/cars/page")
+                        .param("after", "5")
+                        .param("category", "STANDARD")
+                        .param("make", "BMW")
+                        .param("available", "true")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].model").value("X5"))
+                .andExpect(jsonPath("$.nextCursor").value(5));
+    }
+
+    @Test
+    void getAvailableCars_withPeriod_shouldUseDateSearch() throws Exception {
+        when(carService.findAvailableCars(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3), null, 4L, 1))
+                .thenReturn(new CursorPageDto<>(List.of(car), 5L));
+
+        mvc.perform(get("/api/cars/available")
+                        .param("start", "2025-07-01")
+                        .param("end", "2025-07-03")
+                        .param("after", "4")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(5))
+                .andExpect(jsonPath("$.nextCursor").value(5));
+    }
+
     @Test
     void getAvailableCars_shouldReturnJsonArray() throws Exception {
         // Przygotowanie dwóch samochodów
@@ -75,6 +134,59 @@ class CarControllerTest {
     }
 
 
+    @Test
+    void searchCars_shouldPassQueryAndLimit() throws Exception {
+        when(carService.searchCars("bmw x", 5)).thenReturn(List.of(car));
+
+        mvc.perform(get("/api/cars/search").param("q", "bmw x").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].model").value("X5"));
+    }
+
+    @Test
+    void autocomplete_shouldReturnSuggestions() throws Exception {
+        when(carService.autocomplete("bm", 10)).thenReturn(List.of("BMW", "BMW X5"));
+
+        mvc.perform(get("/api/cars/autocomplete").param("prefix", "bm"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"BMW\",\"BMW X5\"]"));
+    }
+
+    @Test
+    void getAvailableCars_withCategory_shouldFilterByCategory() throws Exception {
+        LuxuryCar luxury = new LuxuryCar();
+        luxury.setId(8L);
+        luxury.setMake("Bentley");
+        luxury.setModel("Continental");
+        luxury.setYear(2023);
+        luxury.setAvailable(true);
+        when(carService.findAvailableCars(CarCategory.LUXURY)).thenReturn(List.of(luxury));
+
+        mvc.perform(get("/api/cars/available").param("category", "LUXURY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(8))
+                .andExpect(jsonPath("$[0].category").value("LUXURY"));
+    }
+
+    @Test
+    void createCar_withCategory_shouldBindSubclass() throws Exception {
+        when(carService.createCar(any())).thenAnswer(inv -> {
+            Car c = inv.getArgument(0);
+            c.setId(11L);
+            return c;
+        });
+
+        mvc.perform(post("/api/cars")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"make\":\"Fiat\",\"model\":\"Panda\",\"year\":2022,\"available\":true,\"category\":\"ECONOMY\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.category").value("ECONOMY"));
+
+        ArgumentCaptor<Car> captor = ArgumentCaptor.forClass(Car.class);
+        Mockito.verify(carService).createCar(captor.capture());
+        assertThat(captor.getValue()).isInstanceOf(EconomyCar.class);
+    }
+
     @Test
     void createCar_shouldReturnCreatedWithLocationHeader() throws Exception {
         Car toCreate = new Car();
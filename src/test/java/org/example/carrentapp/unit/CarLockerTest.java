@@ -0,0 +1,69 @@
+package org.example.carrentapp.unit;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.service.CarLocker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CarLockerTest {
+
+    @Mock private CarRepository carRepo;
+    @Mock private EntityManagerFactory emf;
+    @Mock private Cache cache;
+
+    private Car car;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        car = new Car();
+        car.setId(1L);
+        when(emf.getCache()).thenReturn(cache);
+    }
+
+    @Test
+    void optimisticMode_shouldUseForceIncrementQuery() {
+        when(carRepo.findByIdForBooking(1L)).thenReturn(Optional.of(car));
+
+        Optional<Car> result = new CarLocker(carRepo, emf, CarLocker.Mode.OPTIMISTIC).findAndLock(1L);
+
+        assertThat(result).contains(car);
+        verify(carRepo, never()).findByIdForUpdate(anyLong());
+        // podbitej wersji nie ma w cache drugiego poziomu, więc auto z niego wypada
+        verify(cache).evict(Car.class, 1L);
+    }
+
+    @Test
+    void pessimisticMode_shouldUseSelectForUpdate() {
+        when(carRepo.findByIdForUpdate(1L)).thenReturn(Optional.of(car));
+
+        Optional<Car> result = new CarLocker(carRepo, emf, CarLocker.Mode.PESSIMISTIC).findAndLock(1L);
+
+        assertThat(result).contains(car);
+        verify(carRepo, never()).findByIdForBooking(anyLong());
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void findAndLockAll_shouldUseBulkQueryOfConfiguredMode() {
+        when(carRepo.findAllByIdForBooking(Set.of(1L))).thenReturn(List.of(car));
+        when(carRepo.findAllByIdForUpdate(Set.of(1L))).thenReturn(List.of(car));
+
+        assertThat(new CarLocker(carRepo, emf, CarLocker.Mode.OPTIMISTIC).findAndLockAll(Set.of(1L))).containsExactly(car);
+        verify(carRepo, never()).findAllByIdForUpdate(any());
+
+        assertThat(new CarLocker(carRepo, emf, CarLocker.Mode.PESSIMISTIC).findAndLockAll(Set.of(1L))).containsExactly(car);
+        verify(carRepo).findAllByIdForUpdate(Set.of(1L));
+    }
+}
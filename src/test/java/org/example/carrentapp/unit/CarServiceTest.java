@@ -1,17 +1,31 @@
 package org.example.carrentapp.unit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carrentapp.available.AvailabilityRules;
+import org.example.carrentapp.available.CarAvailabilityIndex;
+import org.example.carrentapp.available.LuxuryAvailabilityRule;
+import org.example.carrentapp.available.StandardAvailabilityRule;
+import org.example.carrentapp.dto.CursorPageDto;
 import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.CarCategory;
+import org.example.carrentapp.entity.EconomyCar;
+import org.example.carrentapp.entity.LuxuryCar;
 import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.search.CarAutocomplete;
 import org.example.carrentapp.service.CarService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +34,17 @@ class CarServiceTest {
     @Mock
     private CarRepository repo;
 
+    @Spy
+    private CarAvailabilityIndex availabilityIndex = new CarAvailabilityIndex();
+
+    @Spy
+    private AvailabilityRules availabilityRules = new AvailabilityRules(
+            List.of(new StandardAvailabilityRule(), new LuxuryAvailabilityRule()), Set.of(Car.class, EconomyCar.class, LuxuryCar.class),
+            new SimpleMeterRegistry());
+
+    @Spy
+    private CarAutocomplete autocomplete = new CarAutocomplete();
+
     @InjectMocks
     private CarService carService;
 
@@ -52,14 +77,13 @@ class CarServiceTest {
     }
 
     @Test
-    void getAllCars_shouldReturnListFromRepo() {
-        List<Car> cars = Collections.singletonList(sampleCar);
-        when(repo.findAll()).thenReturn(cars);
+    void getAllCars_shouldReadFirstPageOfMaxSize() {
+        when(repo.findBy(ArgumentMatchers.<Specification<Car>>any(), any())).thenReturn(List.of(sampleCar));
 
         List<Car> result = carService.getAllCars();
 
-        assertThat(result).isSameAs(cars);
-        verify(repo).findAll();
+        assertThat(result).containsExactly(sampleCar);
+        verify(repo, never()).findAll();
     }
 
 
@@ -68,6 +92,65 @@ class CarServiceTest {
 
 
 
+    @Test
+    void findAvailableCars_shouldQueryWithRuleAndDropRowsFailingJavaCheck() {
+        Car free = new Car();
+        free.setId(5L);
+        free.setYear(2020);
+        free.setAvailable(true);
+        when(repo.findAll(ArgumentMatchers.<Specification<Car>>any(), any(Sort.class))).thenReturn(List.of(free, sampleCar));
+
+        List<Car> result = carService.findAvailableCars();
+
+        assertThat(result).containsExactly(free);
+        verify(repo).findAll(availabilityRules.available(), Sort.by("id"));
+        verify(repo, never()).findAll();
+    }
+
+    @Test
+    void findAvailableCars_inCategory_shouldUseOnlyThatCategoryRule() {
+        LuxuryCar luxury = new LuxuryCar();
+        luxury.setId(7L);
+        luxury.setYear(2022);
+        luxury.setAvailable(true);
+        when(repo.findAll(ArgumentMatchers.<Specification<Car>>any(), any(Sort.class))).thenReturn(List.of(luxury));
+
+        List<Car> result = carService.findAvailableCars(CarCategory.LUXURY);
+
+        assertThat(result).containsExactly(luxury);
+        verify(repo).findAll(availabilityRules.available(CarCategory.LUXURY), Sort.by("id"));
+    }
+
+    @Test
+    void findAvailableCars_forPeriodInCategory_noFreeCars_shouldSkipQuery() {
+        availabilityIndex.registerCar(1L);
+        availabilityIndex.book(10L, 1L, LocalDate.now(), LocalDate.now().plusDays(3));
+
+        CursorPageDto<Car> result = carService.findAvailableCars(
+                LocalDate.now(), LocalDate.now().plusDays(2), CarCategory.ECONOMY, null, 20);
+
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void searchCars_shouldMatchWordPrefixesAndEscapedFragment() {
+        when(repo.search(anyString(), anyString(), anyInt())).thenReturn(List.of(sampleCar));
+
+        List<Car> result = carService.searchCars(" Toyota co_", 500);
+
+        assertThat(result).containsExactly(sampleCar);
+        verify(repo).search("toyota:* & co:*", "%toyota co\\_%", CarService.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void searchCars_noWords_shouldNotQuery() {
+        assertThat(carService.searchCars(" %- ", 10)).isEmpty();
+        assertThat(carService.searchCars(null, 10)).isEmpty();
+        verifyNoInteractions(repo);
+    }
+
     @Test
     void createCar_shouldSaveAndReturn() {
         Car newCar = new Car();
@@ -89,6 +172,73 @@ class CarServiceTest {
 
         assertThat(result).isEqualTo(saved);
         verify(repo).save(newCar);
+        verify(availabilityIndex).registerCar(2L);
+        assertThat(carService.autocomplete("hon", 10)).containsExactly("Honda", "Honda Civic");
+    }
+
+    @Test
+    void getCarsPage_moreRowsThanLimit_shouldReturnCursor() {
+        Car second = new Car();
+        second.setId(2L);
+        Car third = new Car();
+        third.setId(3L);
+        when(repo.findBy(ArgumentMatchers.<Specification<Car>>any(), any())).thenReturn(List.of(sampleCar, second, third));
+
+        CursorPageDto<Car> page = carService.getCarsPage(null, null, "Toyota", null, null, null, 2);
+
+        assertThat(page.getItems()).containsExactly(sampleCar, second);
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+        verify(repo, never()).findAll();
+    }
+
+    @Test
+    void getCarsPage_lastPage_shouldReturnNullCursor() {
+        when(repo.findBy(ArgumentMatchers.<Specification<Car>>any(), any())).thenReturn(List.of(sampleCar));
+
+        CursorPageDto<Car> page = carService.getCarsPage(0L, null, null, null, null, true, 20);
+
+        assertThat(page.getItems()).containsExactly(sampleCar);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findAvailableCars_forPeriod_shouldLoadOnlyOnePageOfFreeCars() {
+        for (long id = 1; id <= 5; id++) {
+            availabilityIndex.registerCar(id);
+        }
+        availabilityIndex.book(10L, 2L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        Car third = new Car();
+        third.setId(3L);
+        when(repo.findBy(ArgumentMatchers.<Specification<Car>>any(), any())).thenReturn(List.of(sampleCar, third));
+
+        CursorPageDto<Car> page = carService.findAvailableCars(LocalDate.now(), LocalDate.now().plusDays(2), null, null, 1);
+
+        assertThat(page.getItems()).containsExactly(sampleCar);
+        assertThat(page.getNextCursor()).isEqualTo(1L);
+        verify(repo).findBy(ArgumentMatchers.<Specification<Car>>any(), any());
+        verify(repo, never()).findAll();
+        verify(repo, never()).findAllById(any());
+    }
+
+    @Test
+    void findAvailableCars_forPeriodInCategory_shouldQueryFreeIdsInBoundedChunks() {
+        for (long id = 1; id <= 2500; id++) {
+            availabilityIndex.registerCar(id);
+        }
+        when(repo.findBy(ArgumentMatchers.<Specification<Car>>any(), any())).thenReturn(List.of());
+
+        CursorPageDto<Car> page = carService.findAvailableCars(
+                LocalDate.now(), LocalDate.now().plusDays(2), CarCategory.LUXURY, 100L, 20);
+
+        // 2400 wolnych id za kursorem -> 3 zapytania po najwyżej 1000 id
+        assertThat(page.getItems()).isEmpty();
+        verify(repo, times(3)).findBy(ArgumentMatchers.<Specification<Car>>any(), any());
+    }
+
+    @Test
+    void findAvailableCars_invalidPeriod_shouldThrow() {
+        assertThatThrownBy(() -> carService.findAvailableCars(LocalDate.now(), LocalDate.now().minusDays(1), null, null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -129,6 +279,7 @@ class CarServiceTest {
         assertThat(result.getYear()).isEqualTo(2019);
         assertThat(result.getAvailable()).isFalse();  // Używamy getAvailable() zamiast isAvailable()
         verify(repo).save(sampleCar);
+        verify(autocomplete).register(1L, "Ford", "Focus");
     }
 
     @Test
@@ -149,6 +300,7 @@ class CarServiceTest {
 
         assertThat(result).isTrue();
         verify(repo).deleteById(1L);
+        verify(autocomplete).unregister(1L);
     }
 
     @Test
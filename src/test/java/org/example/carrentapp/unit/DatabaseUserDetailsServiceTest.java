@@ -0,0 +1,102 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.security.DatabaseUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DatabaseUserDetailsServiceTest {
+
+    private UserRepository userRepo;
+    private UserCache userCache;
+    private DatabaseUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepository.class);
+        userCache = mock(UserCache.class);
+        service = new DatabaseUserDetailsService(userRepo, userCache);
+    }
+
+    @Test
+    void loadUserByUsername_databaseUser_mapsRolesToAuthorities() {
+        User anna = new User();
+        anna.setUsername("anna");
+        anna.setPassword("$2a$10$hash");
+        anna.setRoles(Set.of(role("USER"), role("ROLE_MANAGER")));
+        when(userRepo.findWithRolesByUsername("anna")).thenReturn(Optional.of(anna));
+
+        UserDetails details = service.loadUserByUsername("anna");
+
+        assertThat(details.getPassword()).isEqualTo("$2a$10$hash");
+        assertThat(details.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_MANAGER");
+    }
+
+    @Test
+    void loadUserByUsername_adminFromDatabase_usesStoredPassword() {
+        User admin = new User();
+        admin.setUsername("admin");
+        admin.setPassword("{bcrypt}$2a$10$own");
+        admin.setRoles(Set.of(role("ADMIN")));
+        when(userRepo.findWithRolesByUsername("admin")).thenReturn(Optional.of(admin));
+
+        UserDetails details = service.loadUserByUsername("admin");
+
+        assertThat(details.getPassword()).isEqualTo("{bcrypt}$2a$10$own");
+        assertThat(details.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void loadUserByUsername_unknown_throws() {
+        when(userRepo.findWithRolesByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.loadUserByUsername("ghost"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void updatePassword_databaseUser_storesNewHashAndEvictsCachedAccount() {
+        UserDetails old = org.springframework.security.core.userdetails.User.withUsername("anna")
+                .password("$2a$04$old").roles("USER").build();
+        when(userRepo.updatePasswordByUsername("anna", "{bcrypt}$2a$10$new")).thenReturn(1);
+
+        UserDetails updated = service.updatePassword(old, "{bcrypt}$2a$10$new");
+
+        assertThat(updated.getPassword()).isEqualTo("{bcrypt}$2a$10$new");
+        assertThat(updated.getAuthorities()).isEqualTo(old.getAuthorities());
+        verify(userCache).removeUserFromCache("anna");
+    }
+
+    @Test
+    void updatePassword_accountDeletedMeanwhile_leavesItUnchanged() {
+        UserDetails gone = org.springframework.security.core.userdetails.User.withUsername("gone")
+                .password("$2a$04$old").roles("USER").build();
+        when(userRepo.updatePasswordByUsername(eq("gone"), anyString())).thenReturn(0);
+
+        assertThat(service.updatePassword(gone, "{bcrypt}x")).isSameAs(gone);
+        verifyNoInteractions(userCache);
+    }
+
+    private static Role role(String name) {
+        Role r = new Role();
+        r.setName(name);
+        return r;
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.carrentapp.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.User;
+import org.example.carrentapp.repository.CarRepository;
+import org.example.carrentapp.repository.ReservationRepository;
+import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTest {
+
+    @Mock private CarRepository carRepo;
+    @Mock private ReservationRepository reservationRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private EntityManager entityManager;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ExportService(carRepo, reservationRepo, userRepo, entityManager,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    private static Car car(long id) {
+        Car c = new Car();
+        c.setId(id);
+        c.setMake("Make" + id);
+        c.setModel("Model" + id);
+        c.setYear(2020);
+        return c;
+    }
+
+    @Test
+    void exportCars_jsonArray_shouldWriteAllRows() throws Exception {
+        when(carRepo.streamAllBy()).thenReturn(Stream.of(car(1), car(2)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportCars(out, ExportService.Format.JSON_ARRAY);
+
+        Car[] parsed = new ObjectMapper().readValue(out.toByteArray(), Car[].class);
+        assertThat(parsed).extracting(Car::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void exportUsers_ndjson_shouldWriteOneDocumentPerLine() {
+        when(userRepo.findIdsAfter(eq(0L), any())).thenReturn(List.of(7L, 8L));
+        when(userRepo.findWithRolesByIdIn(List.of(7L, 8L))).thenReturn(List.of(user(7), user(8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportUsers(out, ExportService.Format.NDJSON);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2).allMatch(l -> l.startsWith("{") && l.contains("\"jan\""));
+        assertThat(lines[0]).doesNotContain("secret");
+    }
+
+    @Test
+    void exportUsers_largeTable_shouldLoadRolesOncePerChunk() {
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().toList();
+        when(userRepo.findIdsAfter(anyLong(), any())).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            return ids.stream().filter(id -> id > after).limit(500).toList();
+        });
+        when(userRepo.findWithRolesByIdIn(anyCollection())).thenAnswer(inv ->
+                inv.<Collection<Long>>getArgument(0).stream().map(id -> user(id.intValue())).toList());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportUsers(out, ExportService.Format.NDJSON);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).hasSize(1200);
+        // paczki 500 + 500 + 200; krótsza paczka kończy eksport bez dodatkowego zapytania o id
+        verify(userRepo, times(3)).findIdsAfter(anyLong(), eq(Limit.of(500)));
+        verify(userRepo, times(3)).findWithRolesByIdIn(anyCollection());
+    }
+
+    @Test
+    void exportCars_largeTable_shouldPeriodicallyClearPersistenceContext() {
+        when(carRepo.streamAllBy()).thenReturn(IntStream.rangeClosed(1, 1200).mapToObj(ExportServiceTest::car));
+
+        exportService.exportCars(new ByteArrayOutputStream(), ExportService.Format.NDJSON);
+
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void exportCars_shouldFlushInChunksNotPerRow() {
+        when(carRepo.streamAllBy()).thenReturn(IntStream.rangeClosed(1, 1200).mapToObj(ExportServiceTest::car));
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        exportService.exportCars(out, ExportService.Format.JSON_ARRAY);
+
+        // co CLEAR_EVERY wierszy i raz przy zamknięciu generatora
+        assertThat(flushes.get()).isLessThanOrEqualTo(3);
+    }
+
+    private static User user(int id) {
+        User u = new User();
+        u.setId((long) id);
+        u.setUsername("jan");
+        u.setEmail("jan" + id + "@example.com");
+        u.setPassword("secret");
+        return u;
+    }
+}
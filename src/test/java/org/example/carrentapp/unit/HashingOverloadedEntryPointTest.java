@@ -0,0 +1,74 @@
+package org.example.carrentapp.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.example.carrentapp.security.BoundedPasswordEncoder.HashingOverloadedException;
+import org.example.carrentapp.security.CachingAuthenticationProvider;
+import org.example.carrentapp.security.HashingOverloadedEntryPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Cała ścieżka filtra HTTP Basic: wyjątek z hashowania nie może wyjść poza filtr jako 500
+class HashingOverloadedEntryPointTest {
+
+    private AuthenticationProvider dao;
+    private BasicAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        dao = mock(AuthenticationProvider.class);
+        when(dao.supports(any())).thenReturn(true);
+        AuthenticationCache cache = new AuthenticationCache(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+        BasicAuthenticationEntryPoint basic = new BasicAuthenticationEntryPoint();
+        basic.setRealmName("Realm");
+        filter = new BasicAuthenticationFilter(new ProviderManager(new CachingAuthenticationProvider(dao, cache)),
+                new HashingOverloadedEntryPoint(basic));
+    }
+
+    private MockHttpServletResponse send(String username, String password) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cars");
+        String token = Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        request.addHeader("Authorization", "Basic " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void fullHashingQueue_shouldAnswerServiceUnavailable() throws Exception {
+        when(dao.authenticate(any())).thenThrow(new HashingOverloadedException(new RejectedExecutionException()));
+
+        MockHttpServletResponse response = send("anna", "secret");
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getHeader("WWW-Authenticate")).isNull();
+    }
+
+    @Test
+    void badCredentials_shouldStillAnswerUnauthorizedWithChallenge() throws Exception {
+        when(dao.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+
+        MockHttpServletResponse response = send("anna", "guess");
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getHeader("WWW-Authenticate")).isEqualTo("Basic realm=\"Realm\"");
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.carrentapp.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.example.carrentapp.config.JacksonConfig;
+import org.example.carrentapp.entity.Car;
+import org.example.carrentapp.entity.LuxuryCar;
+import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.Role;
+import org.example.carrentapp.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonConfigTest {
+
+    private final ObjectMapper mapper = JacksonConfig.objectMapper();
+
+    @Test
+    void objectMapper_shouldRegisterTunedModules() {
+        assertThat(mapper.getRegisteredModuleIds()).anySatisfy(id -> assertThat(id.toString()).contains("Blackbird"));
+        assertThat(mapper.getRegisteredModuleIds()).anySatisfy(id -> assertThat(id.toString()).contains("Hibernate6"));
+    }
+
+    @Test
+    void localDate_shouldBeWrittenAsIsoString() throws Exception {
+        Reservation r = new Reservation();
+        r.setStartDate(LocalDate.of(2025, 7, 1));
+        r.setEndDate(LocalDate.of(2025, 7, 3));
+
+        String json = mapper.writeValueAsString(r);
+
+        assertThat(json).contains("\"startDate\":\"2025-07-01\"", "\"endDate\":\"2025-07-03\"");
+        assertThat(mapper.readValue(json, Reservation.class).getEndDate()).isEqualTo(LocalDate.of(2025, 7, 3));
+    }
+
+    @Test
+    void reservation_shouldWriteUserWithoutRoles() throws Exception {
+        Role role = new Role();
+        role.setName("USER");
+        User user = new User();
+        user.setId(5L);
+        user.setUsername("anna");
+        user.getRoles().add(role);
+        Reservation r = new Reservation();
+        r.setUser(user);
+
+        String json = mapper.writeValueAsString(r);
+
+        assertThat(json).contains("\"username\":\"anna\"").doesNotContain("roles");
+        assertThat(mapper.writeValueAsString(user)).contains("\"roles\"");
+    }
+
+    @Test
+    void car_shouldRoundTripWithCategory() throws Exception {
+        LuxuryCar car = new LuxuryCar();
+        car.setId(3L);
+        car.setMake("Bentley");
+        car.setModel("Bentayga");
+        car.setYear(2023);
+
+        Car read = mapper.readValue(mapper.writeValueAsBytes(car), Car.class);
+
+        assertThat(read).isInstanceOf(LuxuryCar.class);
+        assertThat(read.getModel()).isEqualTo("Bentayga");
+    }
+
+    @Test
+    void binaryFormats_shouldRoundTripAndBeSmallerThanJson() throws Exception {
+        Reservation r = new Reservation();
+        r.setId(7L);
+        r.setStartDate(LocalDate.of(2025, 7, 1));
+        r.setEndDate(LocalDate.of(2025, 7, 3));
+        List<Reservation> rows = List.of(r, r, r);
+        int jsonSize = mapper.writeValueAsBytes(rows).length;
+
+        for (ObjectMapper binary : List.of(
+                JacksonConfig.objectMapper(new CBORFactory()), JacksonConfig.objectMapper(new SmileFactory()))) {
+            byte[] bytes = binary.writeValueAsBytes(rows);
+
+            assertThat(bytes.length).isLessThan(jsonSize);
+            Reservation[] read = binary.readValue(bytes, Reservation[].class);
+            assertThat(read).hasSize(3);
+            assertThat(read[2].getEndDate()).isEqualTo(LocalDate.of(2025, 7, 3));
+        }
+    }
+}
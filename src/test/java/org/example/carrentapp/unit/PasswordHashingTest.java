@@ -0,0 +1,108 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.config.SecurityBeans;
+import org.example.carrentapp.security.BoundedPasswordEncoder;
+import org.example.carrentapp.security.PasswordHashCalibrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void exponentialCost_addsOnePerDoublingOfBudget() {
+        // 10 ms przy koszcie 10: 20 ms -> 11, 40 ms -> 12, 79 ms -> nadal 12
+        assertThat(PasswordHashCalibrator.exponentialCost(10, 16, 40 * MS, 10 * MS)).isEqualTo(12);
+        assertThat(PasswordHashCalibrator.exponentialCost(10, 16, 79 * MS, 10 * MS)).isEqualTo(12);
+        assertThat(PasswordHashCalibrator.exponentialCost(10, 16, 5 * MS, 10 * MS)).isEqualTo(10);
+        assertThat(PasswordHashCalibrator.exponentialCost(10, 12, 10_000 * MS, 10 * MS)).isEqualTo(12);
+    }
+
+    @Test
+    void linearCost_scalesIterationsWithinBounds() {
+        assertThat(PasswordHashCalibrator.linearCost(2, 100, 50 * MS, 10 * MS)).isEqualTo(10);
+        assertThat(PasswordHashCalibrator.linearCost(2, 100, 1 * MS, 10 * MS)).isEqualTo(2);
+        assertThat(PasswordHashCalibrator.linearCost(2, 100, 10_000 * MS, 10 * MS)).isEqualTo(100);
+    }
+
+    @Test
+    void zeroBudget_keepsMinimumWithoutMeasuring() {
+        assertThat(PasswordHashCalibrator.exponentialCost(cost -> {
+            throw new AssertionError("should not hash");
+        }, 10, 16, Duration.ZERO)).isEqualTo(10);
+    }
+
+    @Test
+    void delegatingEncoder_hashesWithConfiguredAlgorithmAndUpgradesLegacyHashes() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        DelegatingPasswordEncoder pbkdf2 = new SecurityBeans("pbkdf2", Duration.ZERO).delegatingPasswordEncoder(bcrypt);
+        String legacy = bcrypt.encode("secret");
+
+        String encoded = pbkdf2.encode("secret");
+
+        assertThat(encoded).startsWith("{pbkdf2}");
+        assertThat(pbkdf2.matches("secret", encoded)).isTrue();
+        // hash bez prefiksu to BCrypt sprzed delegacji: nadal działa, ale do przeliczenia
+        assertThat(pbkdf2.matches("secret", legacy)).isTrue();
+        assertThat(pbkdf2.upgradeEncoding(legacy)).isTrue();
+        assertThat(pbkdf2.upgradeEncoding(encoded)).isFalse();
+    }
+
+    @Test
+    void unknownAlgorithm_failsAtStartup() {
+        SecurityBeans beans = new SecurityBeans("md5", Duration.ZERO);
+        assertThatThrownBy(() -> beans.delegatingPasswordEncoder(new BCryptPasswordEncoder(4)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void boundedEncoder_hashesOnPoolThread() {
+        ExecutorService pool = Executors.newSingleThreadExecutor(r -> new Thread(r, "hash-pool"));
+        PasswordEncoder recordingThread = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence raw) {
+                return Thread.currentThread().getName();
+            }
+
+            @Override
+            public boolean matches(CharSequence raw, String encoded) {
+                return true;
+            }
+        };
+        try {
+            assertThat(new BoundedPasswordEncoder(recordingThread, pool).encode("x")).isEqualTo("hash-pool");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void boundedEncoder_rejectsWhenQueueIsFull() throws Exception {
+        ThreadPoolExecutor pool = BoundedPasswordEncoder.hashingPool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            pool.submit(() -> release.await(5, TimeUnit.SECONDS));
+            pool.submit(() -> release.await(5, TimeUnit.SECONDS));
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), pool);
+
+            assertThatThrownBy(() -> encoder.encode("x"))
+                    .isInstanceOf(BoundedPasswordEncoder.HashingOverloadedException.class);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.carrentapp.unit;
+
+import org.example.carrentapp.search.PrefixTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new PrefixTrie();
+        trie.add("BMW");
+        trie.add("BMW X5");
+        trie.add("Bentley");
+        trie.add("Audi");
+    }
+
+    @Test
+    void complete_shouldIgnoreCaseAndReturnAlphabetically() {
+        assertThat(trie.complete("b", 10)).containsExactly("Bentley", "BMW", "BMW X5");
+        assertThat(trie.complete("BMW ", 10)).containsExactly("BMW X5");
+        assertThat(trie.complete("x", 10)).isEmpty();
+    }
+
+    @Test
+    void complete_shouldStopAtLimit() {
+        assertThat(trie.complete("b", 2)).containsExactly("Bentley", "BMW");
+        assertThat(trie.complete("b", 0)).isEmpty();
+    }
+
+    @Test
+    void remove_shouldKeepTermUntilLastOccurrence() {
+        trie.add("bmw");
+
+        trie.remove("BMW");
+        assertThat(trie.complete("bm", 10)).containsExactly("BMW", "BMW X5");
+
+        trie.remove("bmw");
+        assertThat(trie.complete("bm", 10)).containsExactly("BMW X5");
+        assertThat(trie.size()).isEqualTo(3);
+    }
+
+    @Test
+    void remove_unknownTerm_shouldBeIgnored() {
+        trie.remove("Opel");
+        trie.remove("BM");
+
+        assertThat(trie.size()).isEqualTo(4);
+        assertThat(trie.complete("bm", 10)).containsExactly("BMW", "BMW X5");
+    }
+}
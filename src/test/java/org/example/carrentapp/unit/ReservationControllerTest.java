@@ -4,7 +4,9 @@ package org.example.carrentapp.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.dto.ReservationViewDto;
 import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.ReservationStatus;
 import org.example.carrentapp.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,8 +18,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -34,6 +38,7 @@ class ReservationControllerTest {
     private MockMvc mvc;
     private ObjectMapper mapper;
     private Reservation sampleReservation;
+    private ReservationViewDto sampleView;
 
     @BeforeEach
     void setUp() {
@@ -53,18 +58,38 @@ class ReservationControllerTest {
         sampleReservation.setId(3L);
         sampleReservation.setStartDate(LocalDate.of(2025, 9, 10));
         sampleReservation.setEndDate(LocalDate.of(2025, 9, 20));
+
+        sampleView = new ReservationViewDto(3L, LocalDate.of(2025, 9, 10), LocalDate.of(2025, 9, 20),
+                ReservationStatus.PENDING, 5L, "Toyota", "Corolla", 7L, "jan");
     }
 
     @Test
     void getAllReservations_shouldReturnJsonArray() throws Exception {
         when(reservationService.getAllReservations())
-                .thenReturn(Collections.singletonList(sampleReservation));
+                .thenReturn(Collections.singletonList(sampleView));
 
         mvc.perform(get("/api/reservations"))
                 .andExpect(status().isOk())
                 .andExpect(content().json(
-                        mapper.writeValueAsString(Collections.singletonList(sampleReservation))
-                ));
+                        mapper.writeValueAsString(Collections.singletonList(sampleView))
+                ))
+                // ten sam kształt co encja: zagnieżdżone car / user z id
+                .andExpect(jsonPath("$[0].car.id").value(5))
+                .andExpect(jsonPath("$[0].car.make").value("Toyota"))
+                .andExpect(jsonPath("$[0].user.username").value("jan"));
+    }
+
+    @Test
+    void isCarFree_shouldReturnAnswerFromService() throws Exception {
+        when(reservationService.isCarFree(5L, LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 5)))
+                .thenReturn(true);
+
+        mvc.perform(get("/api/reservations/availability")
+                        .param("carId", "5")
+                        .param("start", "2025-10-01")
+                        .param("end", "2025-10-05"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
     }
 
     @Test
@@ -89,14 +114,36 @@ class ReservationControllerTest {
                 .andExpect(content().string(""));
     }
 
+    @Test
+    void createReservations_shouldReturnCreatedWithIds() throws Exception {
+        ReservationDto first = new ReservationDto();
+        first.setCarId(5L);
+        first.setUserId(7L);
+        first.setStartDate(LocalDate.of(2025, 10, 1));
+        first.setEndDate(LocalDate.of(2025, 10, 5));
+        ReservationDto second = new ReservationDto();
+        second.setCarId(6L);
+        second.setUserId(7L);
+        second.setStartDate(LocalDate.of(2025, 10, 1));
+        second.setEndDate(LocalDate.of(2025, 10, 5));
+
+        when(reservationService.createReservations(anyList())).thenReturn(List.of(8L, 9L));
+
+        mvc.perform(post("/api/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(List.of(first, second))))
+                .andExpect(status().isCreated())
+                .andExpect(content().json("[8,9]"));
+    }
+
     @Test
     void getReservationById_whenFound_shouldReturnReservation() throws Exception {
         when(reservationService.getReservationById(3L))
-                .thenReturn(sampleReservation);
+                .thenReturn(sampleView);
 
         mvc.perform(get("/api/reservations/3"))
                 .andExpect(status().isOk())
-                .andExpect(content().json(mapper.writeValueAsString(sampleReservation)));
+                .andExpect(content().json(mapper.writeValueAsString(sampleView)));
     }
 
     @Test
@@ -147,6 +194,25 @@ class ReservationControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void changeStatus_whenFound_shouldReturnView() throws Exception {
+        ReservationViewDto confirmed = new ReservationViewDto(3L, sampleView.startDate(), sampleView.endDate(),
+                ReservationStatus.CONFIRMED, sampleView.car(), sampleView.user());
+        when(reservationService.changeStatus(3L, ReservationStatus.CONFIRMED)).thenReturn(confirmed);
+
+        mvc.perform(patch("/api/reservations/3/status").param("status", "CONFIRMED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+    }
+
+    @Test
+    void changeStatus_whenNotFound_shouldReturn404() throws Exception {
+        when(reservationService.changeStatus(99L, ReservationStatus.CANCELLED)).thenReturn(null);
+
+        mvc.perform(patch("/api/reservations/99/status").param("status", "CANCELLED"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void deleteReservation_whenDeleted_shouldReturnOk() throws Exception {
         when(reservationService.deleteReservation(3L)).thenReturn(true);
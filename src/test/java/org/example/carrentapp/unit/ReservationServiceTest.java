@@ -1,13 +1,17 @@
 package org.example.carrentapp.unit;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.example.carrentapp.available.CarAvailabilityIndex;
 import org.example.carrentapp.dto.ReservationDto;
+import org.example.carrentapp.dto.ReservationViewDto;
 import org.example.carrentapp.entity.Car;
 import org.example.carrentapp.entity.Reservation;
+import org.example.carrentapp.entity.ReservationStatus;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.CarRepository;
 import org.example.carrentapp.repository.ReservationRepository;
 import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.service.CarLocker;
 import org.example.carrentapp.service.ReservationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +28,9 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ReservationServiceTest {
 
+    // Daty względem dnia uruchomienia – nowa rezerwacja nie może zaczynać się w przeszłości
+    private static final LocalDate TODAY = LocalDate.now();
+
     @Mock
     private ReservationRepository reservationRepo;
 
@@ -33,6 +40,12 @@ class ReservationServiceTest {
     @Mock
     private UserRepository userRepo;
 
+    @Mock
+    private CarLocker carLocker;
+
+    @Spy
+    private CarAvailabilityIndex availabilityIndex = new CarAvailabilityIndex();
+
     @InjectMocks
     private ReservationService reservationService;
 
@@ -59,8 +72,8 @@ class ReservationServiceTest {
         sampleReservation.setId(3L);
         sampleReservation.setCar(sampleCar);
         sampleReservation.setUser(sampleUser);
-        sampleReservation.setStartDate(LocalDate.of(2025, 6, 1));
-        sampleReservation.setEndDate(LocalDate.of(2025, 6, 10));
+        sampleReservation.setStartDate(TODAY);
+        sampleReservation.setEndDate(TODAY.plusDays(9));
     }
 
     @Test
@@ -72,7 +85,7 @@ class ReservationServiceTest {
         dto.setStartDate(sampleReservation.getStartDate());
         dto.setEndDate(sampleReservation.getEndDate());
 
-        when(carRepo.findById(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
         when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
         // service ustawi available=false i zapisze car
         when(carRepo.save(sampleCar)).thenReturn(sampleCar);
@@ -95,7 +108,7 @@ class ReservationServiceTest {
         dto.setCarId(99L);
         dto.setUserId(sampleUser.getId());
 
-        when(carRepo.findById(99L)).thenReturn(Optional.empty());
+        when(carLocker.findAndLock(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> reservationService.createReservation(dto))
                 .isInstanceOf(EntityNotFoundException.class)
@@ -108,7 +121,7 @@ class ReservationServiceTest {
         dto.setCarId(sampleCar.getId());
         dto.setUserId(42L);
 
-        when(carRepo.findById(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
         when(userRepo.findById(42L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> reservationService.createReservation(dto))
@@ -117,60 +130,293 @@ class ReservationServiceTest {
     }
 
     @Test
-    void createReservation_carNotAvailable_shouldThrow() {
-        sampleCar.setAvailable(false); // Ustawiamy auto jako niedostępne
+    void createReservation_carRentedOutNow_shouldStillBookFreeFuturePeriod() {
+        sampleCar.setAvailable(false); // auto jest teraz wynajęte
+
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(sampleCar.getId());
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(LocalDate.now().plusDays(10));
+        dto.setEndDate(LocalDate.now().plusDays(12));
+
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
+        when(reservationRepo.save(any(Reservation.class))).thenReturn(sampleReservation);
+
+        assertThat(reservationService.createReservation(dto)).isEqualTo(sampleReservation.getId());
+        verify(reservationRepo).save(any(Reservation.class));
+    }
+
+    @Test
+    void createReservation_futurePeriod_shouldKeepCarAvailable() {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(sampleCar.getId());
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(LocalDate.now().plusDays(10));
+        dto.setEndDate(LocalDate.now().plusDays(12));
+
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
+        when(reservationRepo.save(any(Reservation.class))).thenReturn(sampleReservation);
+
+        reservationService.createReservation(dto);
+
+        // przyszły termin blokuje tylko swoje daty, auto zostaje w puli do dnia odbioru
+        assertThat(sampleCar.getAvailable()).isTrue();
+        verify(carRepo, never()).save(any());
+    }
+
+    @Test
+    void createReservation_overlappingPeriod_shouldThrow() {
+        availabilityIndex.book(10L, sampleCar.getId(), TODAY.plusDays(4), TODAY.plusDays(11));
+
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(sampleCar.getId());
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(TODAY);
+        dto.setEndDate(TODAY.plusDays(4));
+
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
+
+        assertThatThrownBy(() -> reservationService.createReservation(dto))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already reserved in this period");
+        verify(reservationRepo, never()).save(any());
+    }
+
+    @Test
+    void createReservation_overlapFoundInDatabase_shouldThrow() {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(sampleCar.getId());
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(TODAY);
+        dto.setEndDate(TODAY.plusDays(4));
+
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
+        when(reservationRepo.existsActiveOverlap(
+                sampleCar.getId(), dto.getStartDate(), dto.getEndDate())).thenReturn(true);
+
+        assertThatThrownBy(() -> reservationService.createReservation(dto))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already reserved in this period");
+        verify(reservationRepo, never()).save(any());
+    }
+
+    @Test
+    void createReservation_endBeforeStart_shouldThrow() {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(sampleCar.getId());
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(TODAY.plusDays(9));
+        dto.setEndDate(TODAY);
 
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
+
+        assertThatThrownBy(() -> reservationService.createReservation(dto))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void createReservation_startInPast_shouldThrowBeforeTouchingIndex() {
         ReservationDto dto = new ReservationDto();
         dto.setCarId(sampleCar.getId());
         dto.setUserId(sampleUser.getId());
+        dto.setStartDate(TODAY.minusDays(3));
+        dto.setEndDate(TODAY.plusDays(1));
 
-        when(carRepo.findById(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
 
-        // Oczekujemy, że zostanie rzucony wyjątek IllegalStateException
         assertThatThrownBy(() -> reservationService.createReservation(dto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("in the past");
+        verify(reservationRepo, never()).save(any());
+        assertThat(sampleCar.getAvailable()).isTrue();
+    }
+
+    @Test
+    void createReservation_shouldRegisterBookingInIndex() {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(sampleCar.getId());
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(sampleReservation.getStartDate());
+        dto.setEndDate(sampleReservation.getEndDate());
+
+        when(carLocker.findAndLock(dto.getCarId())).thenReturn(Optional.of(sampleCar));
+        when(userRepo.findById(dto.getUserId())).thenReturn(Optional.of(sampleUser));
+        when(reservationRepo.save(any(Reservation.class))).thenReturn(sampleReservation);
+
+        reservationService.createReservation(dto);
+
+        assertThat(availabilityIndex.isFree(sampleCar.getId(), TODAY.plusDays(9), TODAY.plusDays(14))).isFalse();
+        assertThat(availabilityIndex.isFree(sampleCar.getId(), TODAY.plusDays(10), TODAY.plusDays(14))).isTrue();
+    }
+
+    @Test
+    void createReservations_shouldLockAllCarsAndSaveInOneBatch() {
+        Car second = new Car();
+        second.setId(4L);
+        second.setAvailable(true);
+        ReservationDto first = batchDto(sampleCar.getId(), TODAY, TODAY.plusDays(2));
+        ReservationDto other = batchDto(second.getId(), TODAY.plusDays(1), TODAY.plusDays(8));
+
+        when(carLocker.findAndLockAll(Set.of(1L, 4L))).thenReturn(List.of(sampleCar, second));
+        when(userRepo.findAllById(Set.of(sampleUser.getId()))).thenReturn(List.of(sampleUser));
+        when(reservationRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<Reservation> toSave = inv.getArgument(0);
+            long id = 20;
+            for (Reservation r : toSave) {
+                r.setId(id++);
+            }
+            return toSave;
+        });
+
+        List<Long> ids = reservationService.createReservations(List.of(first, other));
+
+        assertThat(ids).containsExactly(20L, 21L);
+        // wynajem od dziś zabiera auto z puli, od jutra – jeszcze nie
+        assertThat(sampleCar.getAvailable()).isFalse();
+        assertThat(second.getAvailable()).isTrue();
+        // zakres zapytania o kolizje obejmuje całą paczkę
+        verify(reservationRepo).findActiveOverlapsForCars(
+                Set.of(1L, 4L), TODAY, TODAY.plusDays(8));
+        verify(carLocker, never()).findAndLock(anyLong());
+        assertThat(availabilityIndex.isFree(4L, TODAY.plusDays(4), TODAY.plusDays(4))).isFalse();
+    }
+
+    @Test
+    void createReservations_sameCarInDisjointPeriods_shouldBookBoth() {
+        List<ReservationDto> dtos = List.of(
+                batchDto(sampleCar.getId(), TODAY.plusDays(4), TODAY.plusDays(5)),
+                batchDto(sampleCar.getId(), TODAY, TODAY.plusDays(1)));
+        when(carLocker.findAndLockAll(Set.of(1L))).thenReturn(List.of(sampleCar));
+        when(userRepo.findAllById(Set.of(sampleUser.getId()))).thenReturn(List.of(sampleUser));
+        when(reservationRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<Reservation> toSave = inv.getArgument(0);
+            long id = 30;
+            for (Reservation r : toSave) {
+                r.setId(id++);
+            }
+            return toSave;
+        });
+
+        assertThat(reservationService.createReservations(dtos)).containsExactly(30L, 31L);
+        assertThat(availabilityIndex.isFree(1L, TODAY.plusDays(2), TODAY.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void createReservations_sameCarOverlappingInBatch_shouldThrowBeforeTouchingDatabase() {
+        List<ReservationDto> dtos = List.of(
+                batchDto(sampleCar.getId(), TODAY, TODAY.plusDays(8)),
+                batchDto(4L, TODAY, TODAY.plusDays(1)),
+                batchDto(sampleCar.getId(), TODAY.plusDays(2), TODAY.plusDays(3)));
+
+        assertThatThrownBy(() -> reservationService.createReservations(dtos))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Overlapping periods for the same car");
+        verifyNoInteractions(carLocker, reservationRepo);
+    }
+
+    @Test
+    void createReservations_missingUser_shouldThrow() {
+        ReservationDto dto = batchDto(sampleCar.getId(), TODAY, TODAY.plusDays(1));
+        when(carLocker.findAndLockAll(Set.of(1L))).thenReturn(List.of(sampleCar));
+        when(userRepo.findAllById(Set.of(sampleUser.getId()))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> reservationService.createReservations(List.of(dto)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("User not found");
+        verify(reservationRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createReservations_oneOverlapping_shouldRejectWholeBatch() {
+        Car second = new Car();
+        second.setId(4L);
+        second.setAvailable(true);
+        when(carLocker.findAndLockAll(Set.of(1L, 4L))).thenReturn(List.of(sampleCar, second));
+        when(userRepo.findAllById(Set.of(sampleUser.getId()))).thenReturn(List.of(sampleUser));
+        Reservation taken = new Reservation();
+        taken.setCar(second);
+        taken.setStartDate(TODAY.plusDays(7));
+        taken.setEndDate(TODAY.plusDays(11));
+        when(reservationRepo.findActiveOverlapsForCars(any(), any(), any()))
+                .thenReturn(List.of(taken));
+
+        List<ReservationDto> dtos = List.of(
+                batchDto(sampleCar.getId(), TODAY, TODAY.plusDays(2)),
+                batchDto(second.getId(), TODAY.plusDays(1), TODAY.plusDays(8)));
+
+        assertThatThrownBy(() -> reservationService.createReservations(dtos))
                 .isInstanceOf(IllegalStateException.class)
-                .hasMessageContaining("Car is already reserved");
+                .hasMessageContaining("already reserved in this period");
+        verify(reservationRepo, never()).saveAll(anyList());
     }
 
+    private ReservationDto batchDto(Long carId, LocalDate start, LocalDate end) {
+        ReservationDto dto = new ReservationDto();
+        dto.setCarId(carId);
+        dto.setUserId(sampleUser.getId());
+        dto.setStartDate(start);
+        dto.setEndDate(end);
+        return dto;
+    }
+
+    @Test
+    void deleteReservation_shouldReleaseBookingFromIndex() {
+        availabilityIndex.book(3L, sampleCar.getId(), TODAY, TODAY.plusDays(9));
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
 
+        reservationService.deleteReservation(3L);
 
+        assertThat(availabilityIndex.isFree(sampleCar.getId(), TODAY, TODAY.plusDays(9))).isTrue();
+    }
 
     @Test
-    void getAllReservations_shouldReturnListFromRepo() {
-        List<Reservation> list = Collections.singletonList(sampleReservation);
-        when(reservationRepo.findAll()).thenReturn(list);
+    void getAllReservations_shouldReturnProjectionsFromRepo() {
+        List<ReservationViewDto> list = List.of(sampleView());
+        when(reservationRepo.findAllViews()).thenReturn(list);
 
-        List<Reservation> result = reservationService.getAllReservations();
+        List<ReservationViewDto> result = reservationService.getAllReservations();
 
         assertThat(result).isSameAs(list);
-        verify(reservationRepo).findAll();
+        verify(reservationRepo, never()).findAll();
     }
 
     @Test
     void getReservationById_whenExists_shouldReturn() {
-        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        ReservationViewDto view = sampleView();
+        when(reservationRepo.findViewById(3L)).thenReturn(Optional.of(view));
 
-        Reservation result = reservationService.getReservationById(3L);
+        ReservationViewDto result = reservationService.getReservationById(3L);
 
-        assertThat(result).isSameAs(sampleReservation);
-        verify(reservationRepo).findById(3L);
+        assertThat(result).isSameAs(view);
+        verify(reservationRepo).findViewById(3L);
     }
 
     @Test
     void getReservationById_whenNotExists_shouldReturnNull() {
-        when(reservationRepo.findById(50L)).thenReturn(Optional.empty());
+        when(reservationRepo.findViewById(50L)).thenReturn(Optional.empty());
 
-        Reservation result = reservationService.getReservationById(50L);
+        ReservationViewDto result = reservationService.getReservationById(50L);
 
         assertThat(result).isNull();
-        verify(reservationRepo).findById(50L);
+        verify(reservationRepo).findViewById(50L);
+    }
+
+    private static ReservationViewDto sampleView() {
+        return new ReservationViewDto(3L, TODAY, TODAY.plusDays(4),
+                ReservationStatus.PENDING, 1L, "Toyota", "Corolla", 2L, "jan");
     }
 
     @Test
     void updateReservation_whenExists_shouldModifyDatesAndSave() {
         ReservationDto dto = new ReservationDto();
-        dto.setStartDate(LocalDate.of(2025, 7, 1));
-        dto.setEndDate(LocalDate.of(2025, 7, 5));
+        dto.setStartDate(TODAY.plusDays(30));
+        dto.setEndDate(TODAY.plusDays(34));
 
         when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
         when(reservationRepo.save(sampleReservation)).thenReturn(sampleReservation);
@@ -182,6 +428,47 @@ class ReservationServiceTest {
         verify(reservationRepo).save(sampleReservation);
     }
 
+    @Test
+    void updateReservation_movedToStartToday_shouldTakeCarOutOfPool() {
+        sampleReservation.setStartDate(TODAY.plusDays(5));
+        sampleReservation.setEndDate(TODAY.plusDays(9));
+        ReservationDto dto = new ReservationDto();
+        dto.setStartDate(TODAY);
+        dto.setEndDate(TODAY.plusDays(2));
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.save(sampleReservation)).thenReturn(sampleReservation);
+        when(reservationRepo.findBlockedCarIds(eq(List.of(1L)), any())).thenReturn(List.of(1L));
+
+        reservationService.updateReservation(3L, dto);
+
+        assertThat(sampleCar.getAvailable()).isFalse();
+    }
+
+    @Test
+    void updateReservation_ongoingRentalKeepsItsStart_butCannotEndInPast() {
+        sampleReservation.setStartDate(TODAY.minusDays(4));
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.save(sampleReservation)).thenReturn(sampleReservation);
+
+        ReservationDto extended = new ReservationDto();
+        extended.setStartDate(TODAY.minusDays(4));
+        extended.setEndDate(TODAY.plusDays(20));
+        assertThat(reservationService.updateReservation(3L, extended).getEndDate()).isEqualTo(TODAY.plusDays(20));
+
+        ReservationDto endedYesterday = new ReservationDto();
+        endedYesterday.setStartDate(TODAY.minusDays(4));
+        endedYesterday.setEndDate(TODAY.minusDays(1));
+        assertThatThrownBy(() -> reservationService.updateReservation(3L, endedYesterday))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("into the past");
+
+        ReservationDto backdated = new ReservationDto();
+        backdated.setStartDate(TODAY.minusDays(6));
+        backdated.setEndDate(TODAY.plusDays(20));
+        assertThatThrownBy(() -> reservationService.updateReservation(3L, backdated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     void updateReservation_whenNotExists_shouldReturnNull() {
         ReservationDto dto = new ReservationDto();
@@ -196,23 +483,125 @@ class ReservationServiceTest {
         verify(reservationRepo, never()).save(any());
     }
 
+    @Test
+    void updateReservation_whenCancelled_shouldThrow() {
+        sampleReservation.setStatus(ReservationStatus.CANCELLED);
+        ReservationDto dto = new ReservationDto();
+        dto.setStartDate(TODAY.plusDays(30));
+        dto.setEndDate(TODAY.plusDays(34));
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+
+        assertThatThrownBy(() -> reservationService.updateReservation(3L, dto))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CANCELLED");
+        verify(reservationRepo, never()).save(any());
+    }
+
+    @Test
+    void changeStatus_allowedTransition_shouldUpdateAndReturnView() {
+        ReservationViewDto view = sampleView();
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.findViewById(3L)).thenReturn(Optional.of(view));
+
+        ReservationViewDto result = reservationService.changeStatus(3L, ReservationStatus.CONFIRMED);
+
+        assertThat(result).isSameAs(view);
+        assertThat(sampleReservation.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+    }
+
+    @Test
+    void changeStatus_cancel_shouldReleaseBookingButKeepReservation() {
+        availabilityIndex.book(3L, sampleCar.getId(), TODAY, TODAY.plusDays(9));
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.findViewById(3L)).thenReturn(Optional.of(sampleView()));
+
+        reservationService.changeStatus(3L, ReservationStatus.CANCELLED);
+
+        assertThat(sampleReservation.getStatus()).isEqualTo(ReservationStatus.CANCELLED);
+        assertThat(availabilityIndex.isFree(sampleCar.getId(), TODAY, TODAY.plusDays(9))).isTrue();
+        verify(reservationRepo, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void changeStatus_handOverBeforeStart_shouldTakeCarOutOfPool() {
+        sampleReservation.setStatus(ReservationStatus.CONFIRMED);
+        sampleReservation.setStartDate(TODAY.plusDays(2));
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.findViewById(3L)).thenReturn(Optional.of(sampleView()));
+        when(reservationRepo.findBlockedCarIds(eq(List.of(1L)), any())).thenReturn(List.of(1L));
+
+        reservationService.changeStatus(3L, ReservationStatus.ACTIVE);
+
+        assertThat(sampleCar.getAvailable()).isFalse();
+    }
+
+    @Test
+    void changeStatus_confirm_shouldNotQueryBlockingReservations() {
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.findViewById(3L)).thenReturn(Optional.of(sampleView()));
+
+        reservationService.changeStatus(3L, ReservationStatus.CONFIRMED);
+
+        verify(reservationRepo, never()).findBlockedCarIds(any(), any());
+    }
+
+    @Test
+    void changeStatus_illegalTransition_shouldThrow() {
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+
+        assertThatThrownBy(() -> reservationService.changeStatus(3L, ReservationStatus.RETURNED))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PENDING to RETURNED");
+        assertThat(sampleReservation.getStatus()).isEqualTo(ReservationStatus.PENDING);
+    }
+
+    @Test
+    void changeStatus_whenNotExists_shouldReturnNull() {
+        when(reservationRepo.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(reservationService.changeStatus(99L, ReservationStatus.CONFIRMED)).isNull();
+    }
+
     @Test
     void deleteReservation_whenExists_shouldDeleteAndReturnTrue() {
-        when(reservationRepo.existsById(3L)).thenReturn(true);
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
 
         boolean deleted = reservationService.deleteReservation(3L);
 
         assertThat(deleted).isTrue();
-        verify(reservationRepo).deleteById(3L);
+        verify(reservationRepo).delete(sampleReservation);
     }
 
     @Test
     void deleteReservation_whenNotExists_shouldReturnFalse() {
-        when(reservationRepo.existsById(100L)).thenReturn(false);
+        when(reservationRepo.findById(100L)).thenReturn(Optional.empty());
 
         boolean deleted = reservationService.deleteReservation(100L);
 
         assertThat(deleted).isFalse();
-        verify(reservationRepo, never()).deleteById(anyLong());
+        verify(reservationRepo, never()).delete(any());
+    }
+
+    @Test
+    void deleteReservation_lastBlockingReservation_shouldMakeCarAvailable() {
+        sampleCar.setAvailable(false);
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.findBlockedCarIds(eq(List.of(1L)), any())).thenReturn(List.of());
+
+        reservationService.deleteReservation(3L);
+
+        assertThat(sampleCar.getAvailable()).isTrue();
+    }
+
+    @Test
+    void changeStatus_cancelWhileAnotherReservationBlocks_shouldKeepCarUnavailable() {
+        sampleCar.setAvailable(false);
+        when(reservationRepo.findById(3L)).thenReturn(Optional.of(sampleReservation));
+        when(reservationRepo.findViewById(3L)).thenReturn(Optional.of(sampleView()));
+        when(reservationRepo.findBlockedCarIds(eq(List.of(1L)), any())).thenReturn(List.of(1L));
+
+        reservationService.changeStatus(3L, ReservationStatus.CANCELLED);
+
+        assertThat(sampleCar.getAvailable()).isFalse();
     }
 }
@@ -2,6 +2,8 @@ package org.example.carrentapp.unit;
 
 import org.example.carrentapp.entity.Role;
 import org.example.carrentapp.repository.RoleRepository;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.example.carrentapp.security.UserDetailsCache;
 import org.example.carrentapp.service.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -22,6 +24,12 @@ class RoleServiceTest {
     @Mock
     private RoleRepository repo;
 
+    @Mock
+    private AuthenticationCache authCache;
+
+    @Mock
+    private UserDetailsCache userCache;
+
     @InjectMocks
     private RoleService roleService;
 
@@ -97,6 +105,9 @@ class RoleServiceTest {
 
         assertThat(result.getName()).isEqualTo("SUPER_ADMIN");
         verify(repo).save(sampleRole);
+        // uprawnienia zalogowanych liczone są z nazw ról
+        verify(authCache).evictAll();
+        verify(userCache).removeAll();
     }
 
     @Test
@@ -107,6 +118,7 @@ class RoleServiceTest {
 
         assertThat(result).isNull();
         verify(repo, never()).save(any());
+        verifyNoInteractions(authCache, userCache);
     }
 
     @Test
@@ -117,6 +129,8 @@ class RoleServiceTest {
 
         assertThat(result).isTrue();
         verify(repo).deleteById(1L);
+        verify(authCache).evictAll();
+        verify(userCache).removeAll();
     }
 
     @Test
@@ -0,0 +1,28 @@
+package org.example.carrentapp.unit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.carrentapp.security.TimedPasswordEncoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class TimedPasswordEncoderTest {
+
+    @Test
+    void encodeAndMatches_shouldDelegateAndRecordTimers() {
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode("pwd")).thenReturn("hash");
+        when(delegate.matches("pwd", "hash")).thenReturn(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TimedPasswordEncoder encoder = new TimedPasswordEncoder(delegate, registry);
+
+        assertThat(encoder.encode("pwd")).isEqualTo("hash");
+        assertThat(encoder.matches("pwd", "hash")).isTrue();
+        assertThat(encoder.matches("pwd", "other")).isFalse();
+
+        assertThat(registry.get("carrentapp.password").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("carrentapp.password").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+}
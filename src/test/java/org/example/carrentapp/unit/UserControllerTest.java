@@ -2,6 +2,7 @@ package org.example.carrentapp.unit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.carrentapp.controller.UserController;
+import org.example.carrentapp.dto.UserSummaryDto;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +15,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -48,6 +50,16 @@ class UserControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(Collections.singletonList(user))));
     }
 
+    @Test
+    void getUserSummaries_shouldReturnUsersWithoutRoles() throws Exception {
+        when(userService.getUserSummaries()).thenReturn(List.of(new UserSummaryDto(3L, "ola", "ola@example.com")));
+
+        mvc.perform(get("/api/users/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username").value("ola"))
+                .andExpect(jsonPath("$[0].roles").doesNotExist());
+    }
+
     @Test
     void createUser_shouldReturnOk() throws Exception {
         User toCreate = new User();
@@ -115,6 +127,34 @@ class UserControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void changePassword_shouldReturnNoContentOr404() throws Exception {
+        when(userService.changePassword(5L, "n3w")).thenReturn(true);
+        when(userService.changePassword(99L, "n3w")).thenReturn(false);
+
+        mvc.perform(put("/api/users/5/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"password\":\"n3w\"}"))
+                .andExpect(status().isNoContent());
+        mvc.perform(put("/api/users/99/password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"password\":\"n3w\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importUsers_shouldReturnCreatedWithIds() throws Exception {
+        when(userService.importUsers(anyList())).thenReturn(List.of(50L, 51L));
+
+        mvc.perform(post("/api/users/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\":\"a\",\"email\":\"a@x.pl\",\"password\":\"p\"},"
+                                + "{\"username\":\"b\",\"email\":\"b@x.pl\",\"password\":\"p\"}]"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0]").value(50))
+                .andExpect(jsonPath("$[1]").value(51));
+    }
+
     @Test
     void deleteUser_shouldAlwaysReturnOk() throws Exception {
         when(userService.deleteUser(5L)).thenReturn(true);
@@ -4,6 +4,8 @@ import org.example.carrentapp.entity.Role;
 import org.example.carrentapp.entity.User;
 import org.example.carrentapp.repository.RoleRepository;
 import org.example.carrentapp.repository.UserRepository;
+import org.example.carrentapp.security.AuthenticationCache;
+import org.example.carrentapp.security.UserDetailsCache;
 import org.example.carrentapp.service.UserService;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,6 +23,8 @@ class UserServiceTest {
     @Mock private UserRepository userRepo;
     @Mock private RoleRepository roleRepo;
     @Mock private PasswordEncoder encoder;
+    @Mock private AuthenticationCache authCache;
+    @Mock private UserDetailsCache userCache;
 
     @InjectMocks private UserService userService;
 
@@ -37,8 +41,7 @@ class UserServiceTest {
         input.setEmail("alice@example.com");
         input.setPassword("plain");
 
-        when(userRepo.findByUsername("alice")).thenReturn(Optional.empty());
-        when(userRepo.existsByEmail("alice@example.com")).thenReturn(false);
+        when(userRepo.findIdentities(Set.of("alice"), Set.of("alice@example.com"))).thenReturn(List.of());
         when(encoder.encode("plain")).thenReturn("encoded");
         when(userRepo.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -64,11 +67,9 @@ class UserServiceTest {
         Role r2 = new Role(); r2.setId(2L);
         input.setRoles(new HashSet<>(Arrays.asList(r1, r2)));
 
-        when(userRepo.findByUsername("bob")).thenReturn(Optional.empty());
-        when(userRepo.existsByEmail("bob@example.com")).thenReturn(false);
+        when(userRepo.findIdentities(Set.of("bob"), Set.of("bob@example.com"))).thenReturn(List.of());
         when(encoder.encode("pw")).thenReturn("encoded2");
-        when(roleRepo.findById(1L)).thenReturn(Optional.of(r1));
-        when(roleRepo.findById(2L)).thenReturn(Optional.of(r2));
+        when(roleRepo.findAllById(Set.of(1L, 2L))).thenReturn(List.of(r1, r2));
         when(userRepo.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
         User result = userService.createUser(input);
@@ -78,6 +79,8 @@ class UserServiceTest {
         assertEquals(2, result.getRoles().size());
         assertTrue(result.getRoles().contains(r1));
         assertTrue(result.getRoles().contains(r2));
+        // wszystkie role jednym zapytaniem
+        verify(roleRepo, never()).findById(any());
     }
 
     @Test
@@ -93,7 +96,7 @@ class UserServiceTest {
     void createUser_duplicateUsername_throws() {
         User input = new User();
         input.setUsername("charlie"); input.setPassword("x");
-        when(userRepo.findByUsername("charlie")).thenReturn(Optional.of(new User()));
+        when(userRepo.findIdentities(any(), any())).thenReturn(List.of(identity("charlie", "other@example.com")));
 
         assertThrows(DuplicateKeyException.class, () -> userService.createUser(input));
     }
@@ -102,8 +105,7 @@ class UserServiceTest {
     void createUser_duplicateEmail_throws() {
         User input = new User();
         input.setUsername("dave"); input.setPassword("y"); input.setEmail("dave@example.com");
-        when(userRepo.findByUsername("dave")).thenReturn(Optional.empty());
-        when(userRepo.existsByEmail("dave@example.com")).thenReturn(true);
+        when(userRepo.findIdentities(any(), any())).thenReturn(List.of(identity("someone", "dave@example.com")));
 
         assertThrows(DuplicateKeyException.class, () -> userService.createUser(input));
     }
@@ -115,11 +117,66 @@ class UserServiceTest {
         Role r = new Role(); r.setId(999L);
         input.setRoles(Collections.singleton(r));
 
-        when(userRepo.findByUsername("eve")).thenReturn(Optional.empty());
-        when(userRepo.existsByEmail("eve@example.com")).thenReturn(false);
-        when(roleRepo.findById(999L)).thenReturn(Optional.empty());
+        when(roleRepo.findAllById(Set.of(999L))).thenReturn(List.of());
 
         assertThrows(IllegalArgumentException.class, () -> userService.createUser(input));
+        // hasło nie jest hashowane, gdy żądanie i tak zostanie odrzucone
+        verify(encoder, never()).encode(any());
+    }
+
+    @Test
+    void importUsers_resolvesRolesOnceAndSavesAllInOneCall() {
+        Role r = new Role(); r.setId(1L);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User u = new User();
+            u.setUsername("p" + i); u.setEmail("p" + i + "@example.com"); u.setPassword("pw" + i);
+            Role ref = new Role(); ref.setId(1L);
+            u.setRoles(new HashSet<>(Set.of(ref)));
+            users.add(u);
+        }
+        when(roleRepo.findAllById(Set.of(1L))).thenReturn(List.of(r));
+        when(encoder.encode(anyString())).thenAnswer(inv -> "enc-" + inv.getArgument(0));
+        when(userRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<User> saved = inv.getArgument(0);
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(100L + i);
+            }
+            return saved;
+        });
+
+        List<Long> ids = userService.importUsers(users);
+
+        assertEquals(List.of(100L, 101L, 102L), ids);
+        assertEquals("enc-pw2", users.get(2).getPassword());
+        assertTrue(users.stream().allMatch(u -> u.getRoles().equals(Set.of(r))));
+        verify(userRepo).findIdentities(Set.of("p0", "p1", "p2"), Set.of("p0@example.com", "p1@example.com", "p2@example.com"));
+        verify(roleRepo).findAllById(Set.of(1L));
+        verify(userRepo, never()).save(any());
+    }
+
+    @Test
+    void importUsers_duplicateUsernameInBatch_throwsBeforeHashing() {
+        User a = new User(); a.setUsername("same"); a.setEmail("a@example.com"); a.setPassword("x");
+        User b = new User(); b.setUsername("same"); b.setEmail("b@example.com"); b.setPassword("y");
+
+        assertThrows(IllegalArgumentException.class, () -> userService.importUsers(List.of(a, b)));
+        verify(encoder, never()).encode(any());
+        verify(userRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void importUsers_existingEmail_throwsDuplicateKey() {
+        User a = new User(); a.setUsername("new"); a.setEmail("taken@example.com"); a.setPassword("x");
+        when(userRepo.findIdentities(any(), any())).thenReturn(List.of(identity("old", "taken@example.com")));
+
+        assertThrows(DuplicateKeyException.class, () -> userService.importUsers(List.of(a)));
+        verify(userRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void importUsers_empty_throws() {
+        assertThrows(IllegalArgumentException.class, () -> userService.importUsers(List.of()));
     }
 
     // Tests for getUserById
@@ -166,6 +223,32 @@ class UserServiceTest {
         assertNull(result);
     }
 
+    @Test
+    void changePassword_found_encodesAndEvictsCachedLogins() {
+        User existing = new User(); existing.setId(13L); existing.setUsername("frank"); existing.setPassword("old");
+        when(userRepo.findById(13L)).thenReturn(Optional.of(existing));
+        when(encoder.encode("new")).thenReturn("encoded-new");
+
+        assertTrue(userService.changePassword(13L, "new"));
+        assertEquals("encoded-new", existing.getPassword());
+        verify(userRepo).save(existing);
+        verify(authCache).evict("frank");
+        verify(userCache).removeUserFromCache("frank");
+    }
+
+    @Test
+    void changePassword_notFound_returnsFalse() {
+        when(userRepo.findById(14L)).thenReturn(Optional.empty());
+
+        assertFalse(userService.changePassword(14L, "new"));
+        verify(authCache, never()).evict(anyString());
+    }
+
+    @Test
+    void changePassword_blank_throws() {
+        assertThrows(IllegalArgumentException.class, () -> userService.changePassword(13L, " "));
+    }
+
     // Tests for deleteUser
     @Test
     void deleteUser_exists_deletesAndReturnsTrue() {
@@ -185,4 +268,18 @@ class UserServiceTest {
         assertFalse(result);
         verify(userRepo, never()).deleteById(anyLong());
     }
+
+    private static UserRepository.UserIdentity identity(String username, String email) {
+        return new UserRepository.UserIdentity() {
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
 }